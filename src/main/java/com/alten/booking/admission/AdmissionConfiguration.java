@@ -0,0 +1,27 @@
+package com.alten.booking.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        if(properties.isEnabled()){
+            interceptors.addInterceptor(new AdmissionInterceptor(rateLimiter, properties.getMaxConcurrentRequests()))
+                .addPathPatterns("/reservation/**", "/room/**", "/hotel/**");
+        }
+    }
+
+}
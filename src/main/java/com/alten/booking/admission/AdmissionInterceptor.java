@@ -0,0 +1,55 @@
+package com.alten.booking.admission;
+
+import java.util.concurrent.Semaphore;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.alten.booking.exceptions.ServiceOverloadedException;
+
+/**
+ * Applies the per IP budget of the endpoint, then admits the request only while fewer than the
+ * maximum concurrent requests are in progress, so a spike is refused before it exhausts the connection pool.
+ * An admitted request holds its permit until it completes, including its async processing.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".admitted";
+
+    private final RateLimiter rateLimiter;
+    private final Semaphore inProgress;
+
+    public AdmissionInterceptor(RateLimiter rateLimiter, int maxConcurrentRequests) {
+        this.rateLimiter = rateLimiter;
+        this.inProgress = new Semaphore(maxConcurrentRequests);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch of an admitted request comes back through here
+        if(!(handler instanceof HandlerMethod) || request.getAttribute(ADMITTED_ATTRIBUTE) != null){
+            return true;
+        }
+        RateLimited rateLimited = ((HandlerMethod) handler).getMethodAnnotation(RateLimited.class);
+        if(rateLimited != null){
+            rateLimiter.check(rateLimited.value(), RateLimiter.IP, request.getRemoteAddr());
+        }
+        if(!inProgress.tryAcquire()){
+            throw new ServiceOverloadedException("Too many requests in progress, please try again");
+        }
+        request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if(request.getAttribute(ADMITTED_ATTRIBUTE) != null){
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            inProgress.release();
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.alten.booking.admission;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("booking.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Requests handled at once by the booking endpoints, beyond which new ones are refused with 503.
+     */
+    private int maxConcurrentRequests = 40;
+
+    /**
+     * Clients and guests tracked at once, the least recent ones starting over with a full bucket.
+     */
+    private long maxTrackedClients = 100000;
+
+    private Map<String, Budget> budgets = new HashMap<>();
+
+    @Data
+    public static class Budget {
+
+        private double ratePerSecond;
+
+        private int burst;
+
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.alten.booking.admission;
+
+import java.lang.reflect.Type;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.alten.booking.dto.GuestRequestDto;
+
+/**
+ * Applies the per guest budget of the endpoint as soon as the guest email is read from the request body.
+ */
+@ControllerAdvice
+public class GuestRateLimitAdvice extends RequestBodyAdviceAdapter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isEnabled() && methodParameter.hasMethodAnnotation(RateLimited.class)
+            && GuestRequestDto.class.isAssignableFrom(methodParameter.getParameterType());
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        String budget = parameter.getMethodAnnotation(RateLimited.class).value();
+        rateLimiter.check(budget, RateLimiter.GUEST, ((GuestRequestDto) body).getGuestEmail());
+        return body;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.alten.booking.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the endpoint with the named budget of booking.admission.budgets, counted per client IP
+ * and, when the request body is a GuestRequestDto, per guest email.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    String value();
+
+}
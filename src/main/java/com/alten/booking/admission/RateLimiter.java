@@ -0,0 +1,52 @@
+package com.alten.booking.admission;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alten.booking.exceptions.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps a token bucket per budget and client, refusing the requests of a client that spent its budget.
+ */
+@Component
+public class RateLimiter {
+
+    public static final String IP = "ip";
+    public static final String GUEST = "guest";
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxTrackedClients())
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    }
+
+    public void check(String budgetName, String scope, String client) {
+        AdmissionProperties.Budget budget = properties.getBudgets().get(budgetName);
+        if(budget == null || client == null){
+            return;
+        }
+        String key = budgetName + '|' + scope + '|' + client.trim().toLowerCase(Locale.ROOT);
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(budget.getRatePerSecond(), budget.getBurst()));
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if(waitNanos > 0){
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new TooManyRequestsException("Too many requests, please try again in " + retryAfter + " seconds", retryAfter);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.alten.booking.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket kept as the time its tokens would all be refilled (the generic cell rate algorithm),
+ * so taking a token is a single compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long refillNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.refillNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.capacityNanos = refillNanos * burst;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token, returning 0 when it was available or how many nanoseconds until the next one otherwise.
+     */
+    public long tryAcquire(long now) {
+        while(true){
+            long current = fullAt.get();
+            long next = (current - now < 0 ? now : current) + refillNanos;
+            long excess = next - now - capacityNanos;
+            if(excess > 0){
+                return excess;
+            }
+            if(fullAt.compareAndSet(current, next)){
+                return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.alten.booking.archive;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.ArchivedReservation;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.locking.JobLocks;
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.service.RoomNightService;
+import com.alten.booking.sharding.ShardRouter;
+
+/**
+ * Moves the reservations ended more than booking.archive.retention-days ago to the reservation_archive table,
+ * with their room nights dropped, so the live table and its indexes only keep the recent reservations.
+ * Each batch is moved in its own short transaction, pausing between batches to spare the database.
+ * A single instance archives each shard at a time, so two instances never move the same reservations.
+ */
+@Component
+public class ReservationArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReservationArchiver.class);
+
+    static final String JOB = "reservation-archive";
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private RoomNightService roomNightService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JobLocks jobLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${booking.archive.retention-days:365}")
+    private long retentionDays;
+
+    @Value("${booking.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.archive.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${booking.archive.max-batches:100}")
+    private int maxBatches;
+
+    @Value("${booking.archive.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /**
+     * Archived reservations all ended, and so started, before this date.
+     */
+    public LocalDate horizon() {
+        return LocalDate.now().minusDays(retentionDays);
+    }
+
+    /**
+     * Tells if reservations starting from the given date, or from any date when null, may be archived.
+     */
+    public boolean reaches(LocalDate startDate) {
+        return startDate == null || startDate.isBefore(horizon());
+    }
+
+    @Scheduled(fixedDelayString = "${booking.archive.delay-ms:3600000}")
+    public void archiveOnSchedule() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            // The reservations left are archived by the next run
+            LOGGER.warn("Reservation archival failed", e);
+        }
+    }
+
+    /**
+     * Archives up to booking.archive.max-batches batches on every shard no other instance is archiving,
+     * returning how many reservations moved.
+     */
+    public int archive() {
+        LocalDate cutoff = horizon();
+        return shardRouter.onEachShard(() -> archiveShard(cutoff)).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int archiveShard(LocalDate cutoff) {
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if(!jobLocks.tryAcquire(JOB, lease)){
+            return 0;
+        }
+        try {
+            int archived = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                archived += moved;
+                // Once the lease is lost, the instance holding it now goes on
+                if(moved < batchSize || !pause() || !jobLocks.tryAcquire(JOB, lease)){
+                    break;
+                }
+            }
+            return archived;
+        } finally {
+            jobLocks.release(JOB);
+        }
+    }
+
+    private int archiveBatch(LocalDate cutoff) {
+        List<Reservation> ended = reservationRepo.findEndedBefore(cutoff, PageRequest.of(0, batchSize));
+        if(ended.isEmpty()){
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Reservation reservation : ended) {
+            entityManager.persist(new ArchivedReservation(reservation.getId(), reservation.getGuestEmail(), reservation.getCreateDate(),
+                reservation.getStartDate(), reservation.getEndDate(), reservation.getStatus(), reservation.getRoom(), now));
+        }
+        List<Long> ids = ended.stream().map(Reservation::getId).collect(Collectors.toList());
+        roomNightService.removeNights(ids);
+        reservationRepo.deleteByIds(ids);
+        return ended.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.alten.booking.async;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.alten.booking.metrics.StatementCounter;
+
+@Configuration
+public class AsyncConfiguration implements WebMvcConfigurer {
+
+    @Value("${booking.async.pool-size:10}")
+    private int poolSize;
+
+    @Value("${booking.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Autowired
+    private WebMvcProperties webMvcProperties;
+
+    /**
+     * Runs the controllers' work off the servlet threads. The pool is sized to the connection pool,
+     * so the requests waiting for a connection queue here instead of holding a Tomcat thread.
+     * Requests still queued when they time out are dropped instead of being run for a client that is gone.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bookingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("booking-");
+        QueueDeadline deadline = new QueueDeadline(webMvcProperties.getAsync().getRequestTimeout());
+        executor.setTaskDecorator(task -> StatementCounter.propagate(deadline.decorate(task)));
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streaming responses are written by the same bounded pool
+        configurer.setTaskExecutor(bookingExecutor());
+    }
+
+}
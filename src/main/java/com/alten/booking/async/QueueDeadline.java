@@ -0,0 +1,38 @@
+package com.alten.booking.async;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops the tasks that waited in the queue for the async request timeout. Their client already got
+ * a 503 and may retry, so running them late could e.g. book the same reservation twice.
+ */
+public class QueueDeadline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueueDeadline.class);
+
+    private final long timeoutNanos;
+
+    /**
+     * Without a timeout the tasks are never dropped.
+     */
+    public QueueDeadline(Duration timeout) {
+        this.timeoutNanos = timeout != null ? timeout.toNanos() : Long.MAX_VALUE;
+    }
+
+    public Runnable decorate(Runnable task) {
+        long queuedAt = System.nanoTime();
+        return () -> {
+            long waited = System.nanoTime() - queuedAt;
+            if(waited >= timeoutNanos){
+                LOGGER.warn("Dropped a request that waited {} ms in the queue, its client already timed out", TimeUnit.NANOSECONDS.toMillis(waited));
+                return;
+            }
+            task.run();
+        };
+    }
+
+}
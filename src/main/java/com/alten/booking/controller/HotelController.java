@@ -0,0 +1,41 @@
+package com.alten.booking.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.alten.booking.admission.RateLimited;
+import com.alten.booking.service.HotelService;
+
+@RestController
+@RequestMapping(value = "hotel")
+public class HotelController {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private Executor bookingExecutor;
+
+    @GetMapping(value = "/{id}/availability", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited("availability")
+    public CompletableFuture<ResponseEntity<List<Long>>> getAvailableRooms(@PathVariable Long id, 
+            @RequestParam("start") @DateTimeFormat(iso = ISO.DATE) LocalDate startDate, 
+            @RequestParam("end") @DateTimeFormat(iso = ISO.DATE) LocalDate endDate) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(hotelService.findAvailableRoomIds(id, startDate, endDate)), bookingExecutor);
+    }
+
+}
@@ -1,5 +1,9 @@
 package com.alten.booking.controller;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,15 +16,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.alten.booking.admission.RateLimited;
+import com.alten.booking.dto.ReservationBatchRequestDto;
+import com.alten.booking.dto.ReservationBatchResultDto;
 import com.alten.booking.dto.ReservationCreateDto;
 import com.alten.booking.dto.ReservationDeleteDto;
 import com.alten.booking.dto.ReservationPageRequestDto;
 import com.alten.booking.dto.ReservationPageResponseDto;
 import com.alten.booking.dto.ReservationUpdateDto;
 import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.RoomTypeReservationCreateDto;
 import com.alten.booking.service.ReservationService;
 
 @RestController
@@ -30,29 +39,56 @@ public class ReservationController {
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private Executor bookingExecutor;
+
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ReservationDto> getReservation(@PathVariable Long id) {
-        return ResponseEntity.status(HttpStatus.OK).body(reservationService.findDtoById(id));
+    @RateLimited("lookup")
+    public CompletableFuture<ResponseEntity<ReservationDto>> getReservation(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(reservationService.findDtoById(id)), bookingExecutor);
     }
 
     @PostMapping(value = "/list", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ReservationPageResponseDto> getUserRerservationList(@RequestBody @Valid ReservationPageRequestDto reservationPageRequest) {
-        return ResponseEntity.status(HttpStatus.OK).body(reservationService.getUserReservationsPageList(reservationPageRequest));
+    @RateLimited("list")
+    public CompletableFuture<ResponseEntity<ReservationPageResponseDto>> getUserRerservationList(@RequestBody @Valid ReservationPageRequestDto reservationPageRequest) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(reservationService.getUserReservationsPageList(reservationPageRequest)), bookingExecutor);
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ReservationDto> createReservation(@RequestBody @Valid ReservationCreateDto reservation) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.validateAndCreateReservation(reservation));
+    @RateLimited("booking")
+    public CompletableFuture<ResponseEntity<ReservationDto>> createReservation(@RequestBody @Valid ReservationCreateDto reservation, 
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.CREATED).body(reservationService.validateAndCreateReservation(reservation, idempotencyKey)), bookingExecutor);
+    }
+
+    @PostMapping(value = "/hold", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited("booking")
+    public CompletableFuture<ResponseEntity<ReservationDto>> holdReservation(@RequestBody @Valid ReservationCreateDto reservation) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.CREATED).body(reservationService.holdReservation(reservation)), bookingExecutor);
+    }
+
+    @PostMapping(value = "/roomType", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited("booking")
+    public CompletableFuture<ResponseEntity<ReservationDto>> createRoomTypeReservation(@RequestBody @Valid RoomTypeReservationCreateDto reservation) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.CREATED).body(reservationService.validateAndCreateRoomTypeReservation(reservation)), bookingExecutor);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited("booking")
+    public CompletableFuture<ResponseEntity<List<ReservationBatchResultDto>>> createReservations(@RequestBody @Valid ReservationBatchRequestDto batch) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(reservationService.validateAndCreateReservations(batch.getReservations())), bookingExecutor);
     }
 
     @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ReservationDto> updateReservation(@PathVariable Long id, @RequestBody @Valid ReservationUpdateDto reservation) {
-        return ResponseEntity.status(HttpStatus.OK).body(reservationService.validateAndUpdateReservation(id, reservation));
+    @RateLimited("booking")
+    public CompletableFuture<ResponseEntity<ReservationDto>> updateReservation(@PathVariable Long id, @RequestBody @Valid ReservationUpdateDto reservation) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(reservationService.validateAndUpdateReservation(id, reservation)), bookingExecutor);
     }
 
     @DeleteMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ReservationDto> cancelReservation(@PathVariable Long id, @RequestBody @Valid ReservationDeleteDto reservation) {
-        return ResponseEntity.status(HttpStatus.OK).body(reservationService.cancelReservation(id, reservation));
+    @RateLimited("booking")
+    public CompletableFuture<ResponseEntity<ReservationDto>> cancelReservation(@PathVariable Long id, @RequestBody @Valid ReservationDeleteDto reservation) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(reservationService.cancelReservation(id, reservation)), bookingExecutor);
     }
 
    
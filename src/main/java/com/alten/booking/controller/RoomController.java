@@ -1,10 +1,15 @@
 package com.alten.booking.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +18,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.alten.booking.admission.RateLimited;
+import com.alten.booking.dto.RoomAvailabilityBulkRequestDto;
+import com.alten.booking.dto.RoomAvailabilityBulkResponseDto;
 import com.alten.booking.dto.RoomCheckDto;
+import com.alten.booking.occupancy.AvailabilitySnapshot;
+import com.alten.booking.service.AvailabilityService;
+import com.alten.booking.service.CalendarService;
 import com.alten.booking.service.ReservationService;
 
 @RestController
@@ -25,14 +38,47 @@ public class RoomController {
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private Executor bookingExecutor;
+
+    /**
+     * Writes the room snapshot with its ETag, a request whose If-None-Match holds it being answered with 304 Not Modified.
+     */
     @GetMapping(value = "/{id}/availableDates", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<String>> getRoomAvailableDates(@PathVariable Long id) {
-        return ResponseEntity.status(HttpStatus.OK).body(reservationService.getRoomAvailableDates(id));
+    @RateLimited("availability")
+    public CompletableFuture<ResponseEntity<byte[]>> getRoomAvailableDates(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> {
+            AvailabilitySnapshot snapshot = reservationService.getRoomAvailabilitySnapshot(id);
+            return ResponseEntity.status(HttpStatus.OK).eTag(snapshot.getETag()).body(snapshot.getBody());
+        }, bookingExecutor);
     }
 
     @PostMapping(value = "/{id}/available", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Boolean> isRoomAvailable(@PathVariable Long id, @RequestBody @Valid RoomCheckDto check) {
-        return ResponseEntity.status(HttpStatus.OK).body(reservationService.isRoomAvailable(id, check));
+    @RateLimited("availability")
+    public CompletableFuture<ResponseEntity<Boolean>> isRoomAvailable(@PathVariable Long id, @RequestBody @Valid RoomCheckDto check) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(reservationService.isRoomAvailable(id, check)), bookingExecutor);
     }
-   
-}
\ No newline at end of file
+
+    @PostMapping(value = "/availability/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited("availability")
+    public CompletableFuture<ResponseEntity<RoomAvailabilityBulkResponseDto>> checkAvailability(@RequestBody @Valid RoomAvailabilityBulkRequestDto request) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.status(HttpStatus.OK).body(availabilityService.checkAvailability(request.getQueries())), bookingExecutor);
+    }
+
+    @GetMapping(value = "/calendar", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RateLimited("availability")
+    public ResponseEntity<StreamingResponseBody> getCalendar(@RequestParam("roomIds") List<Long> roomIds, 
+            @RequestParam("start") @DateTimeFormat(iso = ISO.DATE) LocalDate startDate, 
+            @RequestParam("end") @DateTimeFormat(iso = ISO.DATE) LocalDate endDate) {
+        calendarService.validateCalendar(roomIds, startDate, endDate);
+        StreamingResponseBody body = out -> calendarService.writeCalendar(roomIds, startDate, endDate, out);
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.alten.booking.datasource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Remembers the guests who just wrote, so their reads keep going to the primary until the replica
+ * has caught up. The window is kept per instance.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final int MAX_TRACKED_GUESTS = 10000;
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final ConcurrentMap<String, Long> writeWindows = new ConcurrentHashMap<>();
+
+    @Value("${booking.datasource.read-your-writes-seconds:5}")
+    private long windowSeconds;
+
+    public void recordWrite(String guestEmail) {
+        if(guestEmail == null || windowSeconds <= 0){
+            return;
+        }
+        long now = System.nanoTime();
+        if(writeWindows.size() >= MAX_TRACKED_GUESTS){
+            writeWindows.values().removeIf(until -> until - now < 0);
+        }
+        writeWindows.put(guestEmail, now + TimeUnit.SECONDS.toNanos(windowSeconds));
+    }
+
+    /**
+     * Routes the current transaction to the primary when the guest wrote within the window.
+     * Must be called before the transaction runs its first query.
+     */
+    public void routeGuest(String guestEmail) {
+        Long until = guestEmail != null ? writeWindows.get(guestEmail) : null;
+        if(until == null){
+            return;
+        }
+        if(until - System.nanoTime() < 0){
+            writeWindows.remove(guestEmail, until);
+            return;
+        }
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    PRIMARY_REQUIRED.remove();
+                }
+            });
+        }
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.alten.booking.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the connections of read-only transactions to the replica and every other connection to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the connection is only chosen once the transaction
+ * has been flagged read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPrimaryRequired()){
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.alten.booking.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import com.alten.booking.guest.GuestHash;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A reservation ended before the retention, moved out of the reservation table with its id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "reservation_archive", indexes = @Index(name = "idx_reservation_archive_guest_hash", columnList = "guest_hash, start_date, id"))
+public class ArchivedReservation {
+
+    @Id
+    @Column(name = "id", unique = true, nullable = false)
+    private Long id;
+
+    @Column(name = "guest_email")
+    private String guestEmail;
+
+    private LocalDate createDate;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    private String status;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Room room;
+
+    private LocalDateTime archivedAt;
+
+    /**
+     * Hash of the guest email, derived from it and stored for the guest index.
+     */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "guest_hash")
+    public Long getGuestHash() {
+        return GuestHash.of(guestEmail);
+    }
+
+    protected void setGuestHash(Long guestHash) {
+        // Always derived from the guest email
+    }
+
+}
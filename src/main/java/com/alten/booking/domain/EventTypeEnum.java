@@ -0,0 +1,5 @@
+package com.alten.booking.domain;
+
+public enum EventTypeEnum {
+    CREATED, UPDATED, CANCELED, EXPIRED
+}
@@ -0,0 +1,38 @@
+package com.alten.booking.domain;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lease of a background job shared by every instance, the job running on the instance owning it
+ * until lockedUntil. A one-off job is marked completed once done, so no instance runs it again.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "job_lock")
+public class JobLock {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "owner", length = 64)
+    private String owner;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+}
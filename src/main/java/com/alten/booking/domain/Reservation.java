@@ -1,26 +1,49 @@
 package com.alten.booking.domain;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.alten.booking.guest.GuestHash;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_reservation_room_status_dates", columnList = "room_id, status, start_date, end_date"),
+    @Index(name = "idx_reservation_held_until", columnList = "held_until"),
+    @Index(name = "idx_reservation_end_date", columnList = "end_date"),
+    @Index(name = "idx_reservation_guest", columnList = "guest_hash, start_date, id")
+})
 public class Reservation {
     
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy=GenerationType.SEQUENCE, generator = "reservation_seq")
+    @GenericGenerator(name = "reservation_seq", strategy = "com.alten.booking.sharding.ShardAwareSequenceGenerator", parameters = {
+        @Parameter(name = "sequence_name", value = "reservation_seq"),
+        @Parameter(name = "increment_size", value = "50")
+    })
     @Column(name = "id", unique = true, nullable = false)
     private Long id;
 
@@ -28,13 +51,42 @@ public class Reservation {
 
     private LocalDate createDate;
 
+    @Column(name = "start_date")
     private LocalDate startDate;
 
+    @Column(name = "end_date")
     private LocalDate endDate;
 
     private String status;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Room room;
 
+    /**
+     * End of the hold, only set while the reservation is held.
+     */
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+
+    /**
+     * Reservation sequence of the last event written for the reservation.
+     */
+    @Column(name = "event_sequence")
+    private long eventSequence;
+
+    /**
+     * Hash of the guest email, derived from it and stored for the guest index.
+     */
+    @Access(AccessType.PROPERTY)
+    @Column(name = "guest_hash")
+    public Long getGuestHash() {
+        return GuestHash.of(guestEmail);
+    }
+
+    protected void setGuestHash(Long guestHash) {
+        // Always derived from the guest email
+    }
+
 }
@@ -0,0 +1,68 @@
+package com.alten.booking.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change of a reservation, written in the same transaction as the change and relayed to the event sink
+ * in reservation sequence order. Ids are taken from blocks held by each instance, so they tell nothing of
+ * the order of the changes, while the reservation sequence numbers the events of a reservation in commit order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "reservation_event", indexes = @Index(name = "idx_reservation_event_unpublished", columnList = "published_at, reservation_id, reservation_sequence"))
+public class ReservationEvent {
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.SEQUENCE, generator = "reservation_event_seq")
+    @GenericGenerator(name = "reservation_event_seq", strategy = "com.alten.booking.sharding.ShardAwareSequenceGenerator", parameters = {
+        @Parameter(name = "sequence_name", value = "reservation_event_seq"),
+        @Parameter(name = "increment_size", value = "50")
+    })
+    @Column(name = "id", unique = true, nullable = false)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    /**
+     * Position of the event among the events of its reservation, from 0 for its creation.
+     */
+    @Column(name = "reservation_sequence")
+    private Long reservationSequence;
+
+    private Long roomId;
+
+    private String guestEmail;
+
+    private String type;
+
+    private String status;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+}
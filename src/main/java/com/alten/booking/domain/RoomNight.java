@@ -0,0 +1,29 @@
+package com.alten.booking.domain;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A night of a room taken by a reservation, the primary key making sure a night is never sold twice.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "room_night", indexes = @Index(name = "idx_room_night_reservation", columnList = "reservation_id"))
+public class RoomNight {
+
+    @EmbeddedId
+    private RoomNightId id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+}
@@ -0,0 +1,27 @@
+package com.alten.booking.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Embeddable
+public class RoomNightId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "night", nullable = false)
+    private LocalDate night;
+
+}
@@ -0,0 +1,28 @@
+package com.alten.booking.domain;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rooms of a room type still free on a night, a room type being the rooms of a hotel sharing the same room details.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "room_type_night")
+public class RoomTypeNight {
+
+    @EmbeddedId
+    private RoomTypeNightId id;
+
+    @Column(name = "remaining", nullable = false)
+    private int remaining;
+
+}
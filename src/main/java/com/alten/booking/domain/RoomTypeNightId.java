@@ -0,0 +1,30 @@
+package com.alten.booking.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Embeddable
+public class RoomTypeNightId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(name = "room_details_id", nullable = false)
+    private Long roomDetailsId;
+
+    @Column(name = "night", nullable = false)
+    private LocalDate night;
+
+}
@@ -0,0 +1,31 @@
+package com.alten.booking.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Version of a room, bumped by every write taking or releasing nights of the room. Kept apart from the room
+ * and out of the second-level cache, so the cached room is never written by a booking. A room without a row
+ * is at version 0.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "room_version")
+public class RoomVersion {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+}
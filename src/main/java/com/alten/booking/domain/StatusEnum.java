@@ -1,5 +1,12 @@
 package com.alten.booking.domain;
 
 public enum StatusEnum {
-    RESERVED, CANCELED, CHECKED_IN, CHECKED_OUT
+    RESERVED, CANCELED, CHECKED_IN, CHECKED_OUT, HELD, EXPIRED;
+
+    /**
+     * A held reservation takes its room nights like a reserved one until it is confirmed or expires.
+     */
+    public static boolean takesNights(String status) {
+        return RESERVED.toString().equals(status) || HELD.toString().equals(status);
+    }
 }
@@ -0,0 +1,10 @@
+package com.alten.booking.dto;
+
+/**
+ * A request made on behalf of a guest, identified by their email.
+ */
+public interface GuestRequestDto {
+
+    String getGuestEmail();
+
+}
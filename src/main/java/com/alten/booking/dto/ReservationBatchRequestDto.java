@@ -0,0 +1,22 @@
+package com.alten.booking.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationBatchRequestDto {
+
+    @NotEmpty(message = "The reservations are required")
+    @Size(max = 1000, message = "A batch can't have more than 1000 reservations")
+    private List<@Valid ReservationCreateDto> reservations;
+
+}
@@ -0,0 +1,16 @@
+package com.alten.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReservationBatchResultDto {
+
+    private int index;
+    private ReservationDto reservation;
+    private String error;
+
+}
@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class ReservationCreateDto {
+public class ReservationCreateDto implements GuestRequestDto {
     
     @NotBlank(message = "The guest email is required")
     private String guestEmail;
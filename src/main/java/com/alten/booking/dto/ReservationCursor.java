@@ -0,0 +1,48 @@
+package com.alten.booking.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.alten.booking.exceptions.InvalidReservationException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Position of the last reservation sent to the client, exchanged as an opaque continuation token.
+ */
+@Data
+@AllArgsConstructor
+public class ReservationCursor {
+
+    private LocalDate startDate;
+    private Long id;
+
+    public ReservationCursor(ReservationDto reservation) {
+        this.startDate = LocalDate.parse(reservation.getStartDate());
+        this.id = reservation.getReservationId();
+    }
+
+    public String encode() {
+        String position = startDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token, an empty token being the start of the list.
+     */
+    public static ReservationCursor decode(String token) {
+        if(token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            return new ReservationCursor(LocalDate.parse(position[0]), Long.valueOf(position[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidReservationException("Invalid continuation token");
+        }
+    }
+
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class ReservationDeleteDto {
+public class ReservationDeleteDto implements GuestRequestDto {
 
     @NotBlank(message = "The guest email is required")
     private String guestEmail;
@@ -1,5 +1,6 @@
 package com.alten.booking.dto;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 import com.alten.booking.domain.Reservation;
@@ -19,6 +20,7 @@ public class ReservationDto {
     private String startDate;
     private String endDate;
     private String status;
+    private String heldUntil;
 
     public ReservationDto(Reservation reservation) {
         this.reservationId = reservation.getId();
@@ -29,6 +31,21 @@ public class ReservationDto {
         if(reservation.getRoom() != null) {
             this.roomId = reservation.getRoom().getId();
         }
+        if(reservation.getHeldUntil() != null) {
+            this.heldUntil = reservation.getHeldUntil().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    }
+
+    /**
+     * Used by the JPQL projections reading only the reservation columns.
+     */
+    public ReservationDto(Long reservationId, Long roomId, String guestEmail, LocalDate startDate, LocalDate endDate, String status) {
+        this.reservationId = reservationId;
+        this.roomId = roomId;
+        this.guestEmail = guestEmail;
+        this.startDate = startDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        this.endDate = endDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        this.status = status;
     }
 
     public ReservationDto(ReservationCreateDto reservation) {
@@ -7,6 +7,8 @@ import javax.validation.constraints.NotBlank;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,7 +16,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class ReservationPageRequestDto{
+public class ReservationPageRequestDto implements GuestRequestDto{
 	
 	private int page;
 	private int size;
@@ -23,12 +25,27 @@ public class ReservationPageRequestDto{
 	private Long roomId;
 	private LocalDate startDate;
 	private LocalDate endDate;
+	private String continuationToken;
+	private boolean includeTotal;
 
 	public ReservationPageRequestDto(int page, int size) {
 		this.page = page > 0 ? page : 0;
 		this.size = size > 0 ? size : 5;
 	}
 
+	/**
+	 * Keyset paging is used once the client sends a continuation token, an empty one for the first slice.
+	 */
+	@JsonIgnore
+	public boolean isKeyset() {
+		return continuationToken != null;
+	}
+
+	@JsonIgnore
+	public int getSliceSize() {
+		return size > 0 ? size : 5;
+	}
+
 	public PageRequest toPageRequest() {
 		return PageRequest.of(page, size, Sort.by("startDate").ascending());
 	}
@@ -13,6 +13,7 @@ public class ReservationPageResponseDto {
 	
 	private Long totalReservations;
 	private int pageSize;
-	private int totalPages;
+	private Integer totalPages;
 	private List<ReservationDto> reservations;
+	private String continuationToken;
 }
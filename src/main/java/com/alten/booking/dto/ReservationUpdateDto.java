@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class ReservationUpdateDto {
+public class ReservationUpdateDto implements GuestRequestDto {
 
     @NotBlank(message = "The guest email is required")
     private String guestEmail;
@@ -0,0 +1,22 @@
+package com.alten.booking.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomAvailabilityBulkRequestDto {
+
+    @NotEmpty(message = "The queries are required")
+    @Size(max = 500, message = "A bulk check can't have more than 500 queries")
+    private List<@Valid RoomAvailabilityQueryDto> queries;
+
+}
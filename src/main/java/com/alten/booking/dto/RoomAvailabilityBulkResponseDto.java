@@ -0,0 +1,21 @@
+package com.alten.booking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomAvailabilityBulkResponseDto {
+
+    /**
+     * One character per query, in the same order, '1' when the room is free for the whole query and '0' otherwise.
+     */
+    private String available;
+
+    private List<Long> unknownRoomIds;
+
+}
@@ -0,0 +1,24 @@
+package com.alten.booking.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomAvailabilityQueryDto {
+
+    @NotNull(message = "The room is required")
+    private Long roomId;
+
+    @NotBlank(message = "The start date is required")
+    private String startDate;
+
+    @NotBlank(message = "The end date is required")
+    private String endDate;
+
+}
@@ -0,0 +1,30 @@
+package com.alten.booking.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomTypeReservationCreateDto implements GuestRequestDto {
+
+    @NotBlank(message = "The guest email is required")
+    private String guestEmail;
+
+    @NotBlank(message = "The reservation start date is required")
+    private String startDate;
+
+    @NotBlank(message = "The reservation end date is required")
+    private String endDate;
+
+    @NotNull(message = "The reservation hotel is required")
+    private Long hotelId;
+
+    @NotNull(message = "The reservation room details are required")
+    private Long roomDetailsId;
+
+}
@@ -3,10 +3,13 @@ package com.alten.booking.exceptions;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -14,9 +17,14 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.alten.booking.metrics.BookingMetrics;
+
 
 @ControllerAdvice
 public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
+
+	@Autowired
+	private BookingMetrics bookingMetrics;
 	
 	@ExceptionHandler(NotFoundException.class)
 	public ResponseEntity<ApiError> handleNotFoundException(NotFoundException ex) {
@@ -27,6 +35,7 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 
 	@ExceptionHandler(InvalidReservationException.class)
 	public ResponseEntity<ApiError> handleInvalidReservationException(InvalidReservationException ex) {
+		bookingMetrics.rejected(ex);
 		ApiError error = new ApiError(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), "", LocalDate.now());
 		
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
@@ -34,6 +43,7 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 
 	@ExceptionHandler(MaxReserveDaysException.class)
 	public ResponseEntity<ApiError> handleMaxReserveDaysException(MaxReserveDaysException ex) {
+		bookingMetrics.rejected(ex);
 		ApiError error = new ApiError(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), "maxReserveDays", LocalDate.now());
 		
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
@@ -41,11 +51,48 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 
 	@ExceptionHandler(MaxReserveAdvanceDaysException.class)
 	public ResponseEntity<ApiError> handleMaxReserveAdvanceDaysException(MaxReserveAdvanceDaysException ex) {
+		bookingMetrics.rejected(ex);
 		ApiError error = new ApiError(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), "maxReserveAdvanceDays", LocalDate.now());
 		
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
 	}
 	
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	public ResponseEntity<ApiError> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+		ApiError error = new ApiError(HttpStatus.CONFLICT.value(), "This room was just updated by another request, please try again", null, LocalDate.now());
+		
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+	}
+	
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	public ResponseEntity<ApiError> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+		ApiError error = new ApiError(HttpStatus.UNPROCESSABLE_ENTITY.value(), ex.getMessage(), "Idempotency-Key", LocalDate.now());
+		
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+	}
+	
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<ApiError> handleTooManyRequestsException(TooManyRequestsException ex) {
+		ApiError error = new ApiError(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage(), null, LocalDate.now());
+		
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+			.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds())).body(error);
+	}
+
+	@ExceptionHandler(ServiceOverloadedException.class)
+	public ResponseEntity<ApiError> handleServiceOverloadedException(ServiceOverloadedException ex) {
+		ApiError error = new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(), null, LocalDate.now());
+		
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+	}
+	
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<ApiError> handleRejectedExecutionException(RejectedExecutionException ex) {
+		ApiError error = new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many requests in progress, please try again", null, LocalDate.now());
+		
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+	}
+	
 	@Override
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
 			HttpHeaders headers, HttpStatus status, WebRequest request) {
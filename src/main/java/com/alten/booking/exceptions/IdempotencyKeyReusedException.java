@@ -0,0 +1,9 @@
+package com.alten.booking.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException{
+
+	public IdempotencyKeyReusedException(String msg) {
+		super(msg);
+	}
+
+}
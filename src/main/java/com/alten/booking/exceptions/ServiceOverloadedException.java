@@ -0,0 +1,9 @@
+package com.alten.booking.exceptions;
+
+public class ServiceOverloadedException extends RuntimeException{
+
+	public ServiceOverloadedException(String msg) {
+		super(msg);
+	}
+
+}
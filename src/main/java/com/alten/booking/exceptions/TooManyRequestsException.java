@@ -0,0 +1,16 @@
+package com.alten.booking.exceptions;
+
+public class TooManyRequestsException extends RuntimeException{
+
+	private final long retryAfterSeconds;
+
+	public TooManyRequestsException(String msg, long retryAfterSeconds) {
+		super(msg);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.alten.booking.guest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed-width key of a guest email, the first 64 bits of the SHA-256 of the email as given.
+ * Guest emails are matched exactly and case-sensitively everywhere, so the hash applies no normalization either.
+ * Different emails may share a hash, so lookups by hash still compare the email itself.
+ */
+public class GuestHash {
+
+    private GuestHash(){
+        throw new IllegalStateException("Do not instantiate an Utility class");
+    }
+
+    public static Long of(String guestEmail) {
+        if(guestEmail == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(guestEmail.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.alten.booking.guest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.locking.JobLocks;
+import com.alten.booking.sharding.ShardRouter;
+
+/**
+ * Sets the guest hash of the reservations written before the guest_hash column existed, a single instance
+ * hashing each shard in batches of booking.guest.backfill-batch-size. Each batch reads the ids and emails of
+ * unhashed rows and writes their hashes in one JDBC batch, without loading the reservations.
+ * Until every shard is done, guest lookups also match the unhashed rows by their email.
+ */
+@Component
+public class GuestHashBackfill {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GuestHashBackfill.class);
+
+    static final String JOB = "guest-hash-backfill";
+
+    private static final String[] TABLES = {"reservation", "reservation_archive"};
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JobLocks jobLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${booking.guest.backfill-batch-size:500}")
+    private int batchSize;
+
+    @Value("${booking.guest.backfill-lease-seconds:300}")
+    private long leaseSeconds;
+
+    private volatile boolean complete;
+
+    /**
+     * Tells if every reservation of every shard is known to have its guest hash.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.guest.backfill-delay-ms:60000}", initialDelayString = "${booking.guest.backfill-initial-delay-ms:0}")
+    public void backfillOnSchedule() {
+        if(complete){
+            return;
+        }
+        try {
+            backfillGuestHashes();
+        } catch (RuntimeException e) {
+            // The next run takes the backfill over from where it stopped
+            LOGGER.warn("Guest hash backfill failed", e);
+        }
+    }
+
+    /**
+     * Hashes the shards whose backfill no other instance is running, returning true once every shard is done.
+     */
+    public boolean backfillGuestHashes() {
+        complete = !shardRouter.onEachShard(this::backfillShard).contains(Boolean.FALSE);
+        return complete;
+    }
+
+    private boolean backfillShard() {
+        if(jobLocks.isCompleted(JOB)){
+            return true;
+        }
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if(!jobLocks.tryAcquire(JOB, lease)){
+            return false;
+        }
+        try {
+            for (String table : TABLES) {
+                if(!backfill(table, lease)){
+                    return false;
+                }
+            }
+            jobLocks.complete(JOB);
+            return true;
+        } finally {
+            jobLocks.release(JOB);
+        }
+    }
+
+    /**
+     * Hashes the rows of the table, returning false if the lease was lost on the way.
+     */
+    private boolean backfill(String table, Duration lease) {
+        int hashed = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                // Hashed rows leave the selection, so the first rows are always the next batch
+                List<Object[]> hashes = new ArrayList<>();
+                jdbcTemplate.query("SELECT id, guest_email FROM " + table + " WHERE guest_hash IS NULL AND guest_email IS NOT NULL LIMIT ?",
+                    rs -> {
+                        hashes.add(new Object[] { GuestHash.of(rs.getString("guest_email")), rs.getLong("id") });
+                    }, batchSize);
+                if(!hashes.isEmpty()){
+                    jdbcTemplate.batchUpdate("UPDATE " + table + " SET guest_hash = ? WHERE id = ?", hashes);
+                }
+                return hashes.size();
+            });
+            hashed += batch;
+        } while (batch == batchSize && jobLocks.tryAcquire(JOB, lease));
+        if(hashed > 0){
+            LOGGER.info("Hashed the guest email of {} {} rows", hashed, table);
+        }
+        return batch < batchSize;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.alten.booking.hold;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.service.ReservationService;
+import com.alten.booking.sharding.ShardRouter;
+
+/**
+ * Releases the holds as they end, from the in-memory queue in batches of booking.hold.batch-size,
+ * with a periodic sweep of the held_until index as backup for the holds the queue doesn't know.
+ */
+@Component
+public class HoldExpiryScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    @Autowired
+    private HoldQueue holdQueue;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${booking.hold.batch-size:500}")
+    private int batchSize;
+
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::expireQueuedHolds, "hold-expiry");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.interrupt();
+    }
+
+    private void expireQueuedHolds() {
+        while(!Thread.currentThread().isInterrupted()){
+            try {
+                reservationService.expireHolds(holdQueue.takeExpired(batchSize));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // The holds stay held until the next sweep
+                LOGGER.warn("Hold expiry failed", e);
+            }
+        }
+    }
+
+    /**
+     * Expires every ended hold of every shard, returning how many were released.
+     */
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-delay-ms:10000}")
+    public int sweep() {
+        int released = 0;
+        try {
+            List<Long> ended;
+            int expired;
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                ended = new ArrayList<>();
+                for (List<Long> shardIds : shardRouter.onEachShard(() -> reservationRepo.findExpiredHoldIds(now, PageRequest.of(0, batchSize)))) {
+                    ended.addAll(shardIds);
+                }
+                expired = ended.isEmpty() ? 0 : reservationService.expireHolds(ended);
+                released += expired;
+            } while(expired > 0 && ended.size() >= batchSize);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Hold sweep failed", e);
+        }
+        return released;
+    }
+
+}
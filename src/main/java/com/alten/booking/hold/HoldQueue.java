@@ -0,0 +1,87 @@
+package com.alten.booking.hold;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds of this instance waiting for their expiry, ordered by end of hold. Holds not queued here,
+ * made by another instance, before a restart or beyond booking.hold.max-scheduled, are found by the sweep.
+ */
+@Component
+public class HoldQueue {
+
+    private final DelayQueue<ExpiringHold> holds = new DelayQueue<>();
+
+    @Value("${booking.hold.max-scheduled:100000}")
+    private int maxScheduled;
+
+    /**
+     * Queues the hold once the current transaction commits.
+     */
+    public void schedule(Long reservationId, LocalDateTime heldUntil) {
+        Runnable queue = () -> {
+            if(holds.size() < maxScheduled){
+                holds.add(new ExpiringHold(reservationId, System.nanoTime() + Duration.between(LocalDateTime.now(), heldUntil).toNanos()));
+            }
+        };
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            queue.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                queue.run();
+            }
+        });
+    }
+
+    /**
+     * Waits for the next hold to end, then returns it with up to max - 1 other ended holds.
+     */
+    public List<Long> takeExpired(int max) throws InterruptedException {
+        List<ExpiringHold> expired = new ArrayList<>();
+        expired.add(holds.take());
+        holds.drainTo(expired, max - 1);
+        List<Long> reservationIds = new ArrayList<>(expired.size());
+        expired.forEach(hold -> reservationIds.add(hold.reservationId));
+        return reservationIds;
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    private static class ExpiringHold implements Delayed {
+
+        private final Long reservationId;
+        private final long expiresAtNanos;
+
+        ExpiringHold(Long reservationId, long expiresAtNanos) {
+            this.reservationId = reservationId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((ExpiringHold) other).expiresAtNanos);
+        }
+
+    }
+
+}
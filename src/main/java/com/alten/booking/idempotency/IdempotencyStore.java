@@ -0,0 +1,164 @@
+package com.alten.booking.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.IdempotencyRecord;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.exceptions.IdempotencyKeyReusedException;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.repository.IdempotencyRecordRepository;
+import com.alten.booking.sharding.ShardRouter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps the reservation created for each Idempotency-Key during the TTL, in a bounded in-memory cache
+ * backed by the idempotency_key table shared by every instance.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${booking.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${booking.idempotency.cache-size:10000}")
+    private long cacheSize;
+
+    private Cache<String, IdempotencyRecord> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(Duration.ofHours(ttlHours)).build();
+    }
+
+    /**
+     * Identifies the request payload, so a key sent again with another reservation is refused.
+     */
+    public String fingerprint(ReservationCreateDto dto) {
+        String payload = dto.getGuestEmail() + '|' + dto.getRoomId() + '|' + dto.getStartDate() + '|' + dto.getEndDate();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the reservation already created for the key, if any and not expired.
+     * The key is read from the primary, as a retry reaching this instance may follow a write the replica has not caught up with.
+     */
+    public Optional<ReservationDto> find(String key, String fingerprint) {
+        validateKey(key);
+        IdempotencyRecord record = cache.getIfPresent(key);
+        if(record == null){
+            record = transactionTemplate.execute(status -> recordRepo.findById(key)).filter(found -> !isExpired(found)).orElse(null);
+            if(record == null){
+                return Optional.empty();
+            }
+            cache.put(key, record);
+        }
+        if(!record.getFingerprint().equals(fingerprint)){
+            throw new IdempotencyKeyReusedException("This Idempotency-Key was already used for another reservation");
+        }
+        return Optional.of(read(record.getResponse()));
+    }
+
+    /**
+     * Writes the created reservation under the key in the current transaction, cached once it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void save(String key, String fingerprint, ReservationDto reservation) {
+        // An expired record may still be waiting for the purge
+        recordRepo.findById(key).filter(this::isExpired).ifPresent(expired -> {
+            entityManager.remove(expired);
+            entityManager.flush();
+        });
+        IdempotencyRecord record = new IdempotencyRecord(key, fingerprint, write(reservation), LocalDateTime.now());
+        // Flushed right away, so a concurrent request with the same key fails here and rolls back its reservation
+        entityManager.persist(record);
+        entityManager.flush();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(key, record);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-delay-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minusHours(ttlHours);
+        shardRouter.onEachShard(() -> transactionTemplate.execute(status -> recordRepo.deleteCreatedBefore(before)));
+    }
+
+    private void validateKey(String key) {
+        if(key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH){
+            throw new InvalidReservationException("The Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt().isBefore(LocalDateTime.now().minusHours(ttlHours));
+    }
+
+    private String write(ReservationDto reservation) {
+        try {
+            return objectMapper.writeValueAsString(reservation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ReservationDto read(String response) {
+        try {
+            return objectMapper.readValue(response, ReservationDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
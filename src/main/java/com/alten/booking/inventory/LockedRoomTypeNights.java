@@ -0,0 +1,46 @@
+package com.alten.booking.inventory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomTypeNight;
+import com.alten.booking.domain.RoomTypeNightId;
+import com.alten.booking.exceptions.InvalidReservationException;
+
+/**
+ * Opened nights of some room types, locked until the transaction ends so they are taken in memory,
+ * the nights taken being written back by the next flush in a single JDBC batch.
+ */
+public class LockedRoomTypeNights {
+
+    private final Map<RoomTypeNightId, RoomTypeNight> nights;
+
+    LockedRoomTypeNights(List<RoomTypeNight> nights) {
+        this.nights = nights.stream().collect(Collectors.toMap(RoomTypeNight::getId, Function.identity()));
+    }
+
+    /**
+     * Takes a room of the type of the given room for every night of [startDate, endDate), or none of them when a night is sold out.
+     */
+    public void take(Room room, LocalDate startDate, LocalDate endDate) {
+        Long hotelId = room.getHotel().getId();
+        Long roomDetailsId = room.getRoomDetails().getId();
+        List<RoomTypeNight> taken = new ArrayList<>();
+        for (LocalDate night = startDate; night.isBefore(endDate); night = night.plusDays(1)) {
+            RoomTypeNight typeNight = nights.get(new RoomTypeNightId(hotelId, roomDetailsId, night));
+            if(typeNight != null){
+                if(typeNight.getRemaining() <= 0){
+                    throw new InvalidReservationException(RoomTypeInventory.SOLD_OUT);
+                }
+                taken.add(typeNight);
+            }
+        }
+        taken.forEach(typeNight -> typeNight.setRemaining(typeNight.getRemaining() - 1));
+    }
+
+}
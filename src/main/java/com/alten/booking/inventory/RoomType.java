@@ -0,0 +1,19 @@
+package com.alten.booking.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The rooms of a hotel sharing the same room details, sold as interchangeable units.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomType {
+
+    private Long hotelId;
+
+    private Long roomDetailsId;
+
+}
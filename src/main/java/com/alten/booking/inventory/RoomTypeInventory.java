@@ -0,0 +1,217 @@
+package com.alten.booking.inventory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomNightId;
+import com.alten.booking.domain.RoomVersion;
+import com.alten.booking.domain.RoomTypeNight;
+import com.alten.booking.domain.RoomTypeNightId;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.repository.RoomNightRepository;
+import com.alten.booking.repository.RoomRepository;
+import com.alten.booking.repository.RoomTypeNightRepository;
+import com.alten.booking.service.RoomService;
+import com.alten.booking.sharding.ShardRouter;
+
+/**
+ * Counts the rooms of each room type left per night, so a booking takes one conditional update per night
+ * whatever the number of rooms of its type. Every booking of a room takes its nights here too, keeping the
+ * counters equal to the free rooms of the type, while the room nights still guard each single room.
+ * The nights of a type are opened by the schedule one day ahead of its booking horizon, nights not opened
+ * yet being left out of the counters until the opening counts the room nights taken by then. Each run also
+ * counts the opened nights again, so rooms added to or removed from a type show up in its counters.
+ * Bookings serialize on the counters of the nights they take, so every transaction takes them in the same
+ * (hotel, room details, night) order, before the versions of its rooms are bumped on commit. A count fails
+ * if a booking of its rooms committed since their versions were read, the next run counting them again.
+ */
+@Component
+public class RoomTypeInventory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoomTypeInventory.class);
+
+    static final String SOLD_OUT = "There is no room of this type left for these dates, please try another dates";
+
+    private static final Comparator<RoomType> LOCK_ORDER = Comparator.comparing(RoomType::getHotelId).thenComparing(RoomType::getRoomDetailsId);
+
+    @Autowired
+    private RoomTypeNightRepository roomTypeNightRepo;
+
+    @Autowired
+    private RoomRepository roomRepo;
+
+    @Autowired
+    private RoomNightRepository roomNightRepo;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Takes a room of the type of the given room for every night of [startDate, endDate), in the current transaction.
+     * When a night is sold out the nights already taken are given back before failing, so the caller may go on.
+     */
+    public void take(Room room, LocalDate startDate, LocalDate endDate) {
+        Long hotelId = room.getHotel().getId();
+        Long roomDetailsId = room.getRoomDetails().getId();
+        for (LocalDate night = startDate; night.isBefore(endDate); night = night.plusDays(1)) {
+            if(roomTypeNightRepo.takeNight(hotelId, roomDetailsId, night) == 0 && roomTypeNightRepo.existsById(new RoomTypeNightId(hotelId, roomDetailsId, night))){
+                roomTypeNightRepo.releaseNights(hotelId, roomDetailsId, startDate, night);
+                throw new InvalidReservationException(SOLD_OUT);
+            }
+        }
+    }
+
+    /**
+     * Locks the opened nights of the types of the given rooms up to their booking horizon, until the current transaction ends.
+     * Meant for batches, which then take their nights in memory instead of one update per night.
+     */
+    public LockedRoomTypeNights lock(Collection<Room> rooms) {
+        Map<RoomType, Integer> horizons = new TreeMap<>(LOCK_ORDER);
+        for (Room room : rooms) {
+            horizons.put(new RoomType(room.getHotel().getId(), room.getRoomDetails().getId()), room.getRoomDetails().getMaxReserveAdvanceDays());
+        }
+        LocalDate today = LocalDate.now();
+        List<RoomTypeNight> nights = new ArrayList<>();
+        // Always locked in the same order so two batches on the same types can't deadlock
+        horizons.forEach((type, days) -> nights.addAll(roomTypeNightRepo.findForUpdate(type.getHotelId(), type.getRoomDetailsId(), today, today.plusDays(days + 1L))));
+        return new LockedRoomTypeNights(nights);
+    }
+
+    /**
+     * Locks the opened nights of both stays of a moved reservation, until the current transaction ends. Giving back
+     * the previous nights and then taking the new ones could otherwise cross the order of other bookings, when
+     * the reservation moves to an earlier night or to a type ordered first.
+     */
+    public void lock(Room previousRoom, LocalDate previousStartDate, LocalDate previousEndDate, Room room, LocalDate startDate, LocalDate endDate) {
+        Map<RoomType, LocalDate[]> stays = new TreeMap<>(LOCK_ORDER);
+        addStay(stays, previousRoom, previousStartDate, previousEndDate);
+        addStay(stays, room, startDate, endDate);
+        stays.forEach((type, stay) -> roomTypeNightRepo.findForUpdate(type.getHotelId(), type.getRoomDetailsId(), stay[0], stay[1]));
+    }
+
+    private void addStay(Map<RoomType, LocalDate[]> stays, Room room, LocalDate startDate, LocalDate endDate) {
+        // Two stays of the same type are locked as one range, in night order
+        stays.merge(new RoomType(room.getHotel().getId(), room.getRoomDetails().getId()), new LocalDate[] { startDate, endDate },
+            (stay, other) -> new LocalDate[] { min(stay[0], other[0]), max(stay[1], other[1]) });
+    }
+
+    private static LocalDate min(LocalDate date, LocalDate other) {
+        return date.isBefore(other) ? date : other;
+    }
+
+    private static LocalDate max(LocalDate date, LocalDate other) {
+        return date.isAfter(other) ? date : other;
+    }
+
+    /**
+     * Gives back the upcoming nights of [startDate, endDate) to the type of the given room, in the current transaction.
+     */
+    public void release(Room room, LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = startDate.isBefore(today) ? today : startDate;
+        if(from.isBefore(endDate)){
+            roomTypeNightRepo.releaseNights(room.getHotel().getId(), room.getRoomDetails().getId(), from, endDate);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.inventory.open-delay-ms:3600000}", initialDelayString = "${booking.inventory.open-initial-delay-ms:0}")
+    public void openOnSchedule() {
+        try {
+            open();
+        } catch (RuntimeException e) {
+            // The nights left are opened by the next run
+            LOGGER.warn("Room type inventory opening failed", e);
+        }
+    }
+
+    /**
+     * Opens the missing nights of every room type on every shard and counts the opened ones again,
+     * returning how many nights were opened or corrected.
+     */
+    public int open() {
+        return shardRouter.onEachShard(() -> roomRepo.findRoomTypes().stream().mapToInt(this::open).sum())
+            .stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Opens the missing nights of a single room type and counts the opened ones again, e.g. right after adding its rooms.
+     */
+    public int open(Long hotelId, Long roomDetailsId) {
+        return shardRouter.onHotel(hotelId, () -> open(new RoomType(hotelId, roomDetailsId)));
+    }
+
+    private int open(RoomType type) {
+        try {
+            return transactionTemplate.execute(status -> openNights(type));
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            // Opened by another instance meanwhile, or a room of the type was booked meanwhile and the next run counts it
+            LOGGER.debug("Nights of room type {} not opened: {}", type, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int openNights(RoomType type) {
+        List<Room> rooms = roomRepo.findAllByHotelIdAndRoomDetailsId(type.getHotelId(), type.getRoomDetailsId());
+        if(rooms.isEmpty()){
+            return 0;
+        }
+        int nights = rooms.get(0).getRoomDetails().getMaxReserveAdvanceDays() + 1;
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(nights);
+        // Read before the nights, so a booking of these rooms committed from now on fails this count
+        Map<Long, Long> versions = roomRepo.findVersionsByIds(rooms.stream().map(Room::getId).collect(Collectors.toList())).stream()
+            .collect(Collectors.toMap(RoomVersion::getRoomId, RoomVersion::getVersion));
+        Map<LocalDate, RoomTypeNight> opened = roomTypeNightRepo.findBetween(type.getHotelId(), type.getRoomDetailsId(), today, end)
+            .stream().collect(Collectors.toMap(typeNight -> typeNight.getId().getNight(), Function.identity()));
+        Map<LocalDate, Long> taken = roomNightRepo.findNightsByRoomsFrom(rooms.stream().map(Room::getId).collect(Collectors.toList()), today)
+            .stream().collect(Collectors.groupingBy(RoomNightId::getNight, Collectors.counting()));
+        int counted = 0;
+        for (LocalDate night = today; night.isBefore(end); night = night.plusDays(1)) {
+            int remaining = Math.max(rooms.size() - taken.getOrDefault(night, 0L).intValue(), 0);
+            RoomTypeNight typeNight = opened.get(night);
+            if(typeNight == null){
+                entityManager.persist(new RoomTypeNight(new RoomTypeNightId(type.getHotelId(), type.getRoomDetailsId(), night), remaining));
+                counted++;
+            }else if(typeNight.getRemaining() != remaining){
+                typeNight.setRemaining(remaining);
+                counted++;
+            }
+        }
+        if(counted > 0){
+            // The counters are written before the versions, in the order bookings take them
+            entityManager.flush();
+            roomService.bumpFrom(versions);
+        }
+        return counted;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.alten.booking.locking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.JobLock;
+import com.alten.booking.repository.JobLockRepository;
+
+/**
+ * Elects a single instance to run a background job, through a lease kept in the job_lock table of the
+ * current shard. The owner extends its lease between batches, and another instance takes the job over
+ * once the lease ran out, e.g. after the owner stopped. Leases are compared with the instance clocks.
+ */
+@Component
+public class JobLocks {
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    private JobLockRepository jobLockRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Takes the lease of the job for the given duration, or extends it when this instance already holds it.
+     * Returns false when another instance holds it or the job is completed.
+     */
+    public boolean tryAcquire(String job, Duration lease) {
+        create(job);
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> jobLockRepo.acquire(job, owner, now, now.plus(lease))) == 1;
+    }
+
+    public void release(String job) {
+        transactionTemplate.execute(status -> jobLockRepo.release(job, owner));
+    }
+
+    /**
+     * Marks the one-off job done for every instance. Only the instance holding its lease can complete it.
+     */
+    public void complete(String job) {
+        transactionTemplate.execute(status -> jobLockRepo.complete(job, owner, LocalDateTime.now()));
+    }
+
+    public boolean isCompleted(String job) {
+        return transactionTemplate.execute(status -> jobLockRepo.findById(job).map(JobLock::getCompletedAt).isPresent());
+    }
+
+    private void create(String job) {
+        if(Boolean.TRUE.equals(transactionTemplate.execute(status -> jobLockRepo.existsById(job)))){
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> jobLockRepo.saveAndFlush(new JobLock(job, null, null, null)));
+        } catch (DataIntegrityViolationException e) {
+            // Created by another instance meanwhile
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.alten.booking.locking;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serializes the writes touching the same room inside this instance, while writes to
+ * different rooms only contend when they hash to the same stripe.
+ * Across instances the nights of a room are guarded by their room night keys, while the room version tells
+ * the other instances to read them again. Bookings also serialize on the
+ * room type counters of their nights, see RoomTypeInventory, taken in a single global order once these
+ * locks are held, so neither set of locks can deadlock the other.
+ */
+@Component
+public class RoomLocks {
+
+    private static final int STRIPES = 256;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public RoomLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the work in a new transaction holding the locks of the given rooms until it is committed.
+     */
+    public <T> T inTransaction(Supplier<T> work, Long... roomIds) {
+        int[] stripes = stripesOf(roomIds);
+        // Always lock in ascending order so two writers on the same rooms can't deadlock
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private int[] stripesOf(Long... roomIds) {
+        return Arrays.stream(roomIds)
+            .filter(id -> id != null)
+            .mapToInt(id -> Math.floorMod(Long.hashCode(id), STRIPES))
+            .distinct()
+            .sorted()
+            .toArray();
+    }
+
+}
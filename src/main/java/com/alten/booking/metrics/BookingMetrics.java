@@ -0,0 +1,21 @@
+package com.alten.booking.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class BookingMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    /**
+     * Counts a rejected reservation, tagged with the exception telling why.
+     */
+    public void rejected(RuntimeException reason) {
+        registry.counter("booking.reservation.rejections", "reason", reason.getClass().getSimpleName()).increment();
+    }
+
+}
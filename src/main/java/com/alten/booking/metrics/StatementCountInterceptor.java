@@ -0,0 +1,58 @@
+package com.alten.booking.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many SQL statements each request ran, tagged by its endpoint.
+ * The counter lives in the request, so it also collects the statements of async handlers and shard scatters.
+ */
+public class StatementCountInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNT_ATTRIBUTE = StatementCountInterceptor.class.getName() + ".count";
+
+    private final MeterRegistry registry;
+
+    public StatementCountInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AtomicInteger count = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+        if(count == null){
+            count = new AtomicInteger();
+            request.setAttribute(COUNT_ATTRIBUTE, count);
+        }
+        StatementCounter.bind(count);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.bind(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementCounter.bind(null);
+        AtomicInteger count = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("booking.http.statements")
+            .description("SQL statements run by a request")
+            .tag("method", request.getMethod())
+            .tag("uri", uri != null ? uri.toString() : "UNKNOWN")
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(count != null ? count.get() : 0);
+    }
+
+}
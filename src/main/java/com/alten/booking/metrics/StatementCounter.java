@@ -0,0 +1,49 @@
+package com.alten.booking.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares into the counter bound to the current thread, leaving them unchanged.
+ * A counter may be bound to several threads at once, such as the threads of a shard scatter.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger count = COUNT.get();
+        if(count != null){
+            count.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void bind(AtomicInteger count) {
+        if(count != null){
+            COUNT.set(count);
+        }else{
+            COUNT.remove();
+        }
+    }
+
+    /**
+     * Makes the task count its statements into the counter of the thread submitting it.
+     */
+    public static Runnable propagate(Runnable task) {
+        AtomicInteger count = COUNT.get();
+        return () -> {
+            bind(count);
+            try {
+                task.run();
+            } finally {
+                bind(null);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.alten.booking.occupancy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Available dates of a room as computed on a given day from a given version of its occupancy,
+ * kept along with their serialized JSON body and its ETag.
+ */
+@Data
+@AllArgsConstructor
+public class AvailabilitySnapshot {
+
+    private final RoomOccupancy occupancy;
+    private final long version;
+    private final LocalDate day;
+    private final List<String> dates;
+    private final byte[] body;
+    private final String eTag;
+
+    public boolean isCurrent(RoomOccupancy current, LocalDate today) {
+        return occupancy == current && version == current.getVersion() && day.equals(today);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.alten.booking.occupancy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Last available dates response of up to booking.occupancy.max-rooms recently queried rooms, ready to be written as is.
+ * A snapshot stays current until the occupancy it was taken from changes or the day rolls over,
+ * and is then taken again from the in-memory occupancy without reading the reservations.
+ */
+@Component
+public class AvailabilitySnapshots {
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${booking.occupancy.max-rooms:100000}")
+    private long maxRooms;
+
+    @Value("${booking.occupancy.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    private Cache<Long, AvailabilitySnapshot> snapshots;
+
+    @PostConstruct
+    public void init() {
+        // A snapshot is only current while its occupancy is loaded, so it is kept as long as the index keeps the room
+        snapshots = Caffeine.newBuilder()
+            .maximumSize(maxRooms)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+
+    /**
+     * Returns the snapshot of the room if it is still current, null otherwise.
+     */
+    public AvailabilitySnapshot current(Long roomId) {
+        AvailabilitySnapshot snapshot = snapshots.getIfPresent(roomId);
+        if(snapshot == null){
+            return null;
+        }
+        RoomOccupancy occupancy = occupancyIndex.loadedOccupancy(roomId);
+        return occupancy != null && snapshot.isCurrent(occupancy, LocalDate.now()) ? snapshot : null;
+    }
+
+    public AvailabilitySnapshot take(Long roomId, int days) {
+        RoomOccupancy occupancy = occupancyIndex.occupancy(roomId);
+        // The version is read first, so a change made while the dates are computed outdates the snapshot
+        long version = occupancy.getVersion();
+        LocalDate today = LocalDate.now();
+        BitSet freeNights = occupancy.freeNights(today, days);
+        List<String> dates = new ArrayList<>(freeNights.cardinality());
+        for(int i = freeNights.nextSetBit(0); i >= 0; i = freeNights.nextSetBit(i + 1)){
+            dates.add(today.plusDays(i).format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+        byte[] body = write(dates);
+        AvailabilitySnapshot snapshot = new AvailabilitySnapshot(occupancy, version, today, Collections.unmodifiableList(dates),
+            body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        snapshots.put(roomId, snapshot);
+        return snapshot;
+    }
+
+    private byte[] write(List<String> dates) {
+        try {
+            return objectMapper.writeValueAsBytes(dates);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
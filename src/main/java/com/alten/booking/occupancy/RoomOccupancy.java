@@ -0,0 +1,109 @@
+package com.alten.booking.occupancy;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Reserved nights of a single room, one bit per night counted from the origin date.
+ * A reservation occupies the nights from its start date (inclusive) to its end date (exclusive).
+ */
+public class RoomOccupancy {
+
+    private final long originDay;
+    private Long roomVersion;
+    private final BitSet nights = new BitSet();
+    private long version;
+
+    public RoomOccupancy(LocalDate origin) {
+        this(origin, null);
+    }
+
+    public RoomOccupancy(LocalDate origin, Long roomVersion) {
+        this.originDay = origin.toEpochDay();
+        this.roomVersion = roomVersion;
+    }
+
+    public LocalDate getOrigin() {
+        return LocalDate.ofEpochDay(originDay);
+    }
+
+    /**
+     * Version of the room its nights are in sync with, null when they were not read from the database.
+     */
+    public synchronized Long getRoomVersion() {
+        return roomVersion;
+    }
+
+    /**
+     * Moves to the next room version, once the nights changed by the transaction that bumped it are applied.
+     */
+    public synchronized void advanceRoomVersion() {
+        if(roomVersion != null){
+            roomVersion++;
+        }
+    }
+
+    /**
+     * Counts the changes made to the nights, so anything derived from them can tell it is outdated.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public boolean covers(LocalDate date) {
+        return date.toEpochDay() >= originDay;
+    }
+
+    public synchronized void reserve(LocalDate startDate, LocalDate endDate) {
+        int from = offsetOf(startDate);
+        int to = offsetOf(endDate);
+        if(from < to){
+            nights.set(from, to);
+            version++;
+        }
+    }
+
+    public synchronized void reserveNight(LocalDate night) {
+        if(covers(night)){
+            nights.set(offsetOf(night));
+            version++;
+        }
+    }
+
+    public synchronized void release(LocalDate startDate, LocalDate endDate) {
+        int from = offsetOf(startDate);
+        int to = offsetOf(endDate);
+        if(from < to){
+            nights.clear(from, to);
+            version++;
+        }
+    }
+
+    public synchronized boolean isFree(LocalDate startDate, LocalDate endDate) {
+        int from = offsetOf(startDate);
+        int to = offsetOf(endDate);
+        if(from >= to){
+            return true;
+        }
+        int next = nights.nextSetBit(from);
+        return next < 0 || next >= to;
+    }
+
+    /**
+     * Returns the free nights of the given window, bit i being set when the night of startDate + i is free.
+     */
+    public synchronized BitSet freeNights(LocalDate startDate, int days) {
+        int from = offsetOf(startDate);
+        BitSet free = new BitSet(days);
+        free.set(0, days);
+        if(days > 0){
+            free.andNot(nights.get(from, from + days));
+        }
+        return free;
+    }
+
+    private int offsetOf(LocalDate date) {
+        return (int) Math.max(0, date.toEpochDay() - originDay);
+    }
+
+}
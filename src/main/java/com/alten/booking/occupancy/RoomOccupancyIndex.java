@@ -0,0 +1,225 @@
+package com.alten.booking.occupancy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.RoomVersion;
+import com.alten.booking.exceptions.NotFoundException;
+import com.alten.booking.repository.RoomNightRepository;
+import com.alten.booking.repository.RoomRepository;
+import com.alten.booking.sharding.ShardRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-memory occupancy of up to booking.occupancy.max-rooms recently queried rooms, loaded from their room nights
+ * along with the room version and kept in sync by the reservation service on create, update and cancel.
+ * Every transaction changing the nights of a room bumps its version, see RoomService.bumpOnCommit. Once it commits,
+ * its changes are applied to each loaded room at once along with that bump, so the room stays in sync with its version.
+ * Changes made by other instances bump the version as well, so every booking.occupancy.refresh-delay-ms the rooms
+ * whose version moved are dropped and loaded again on their next access. An occupancy is also dropped
+ * booking.occupancy.ttl-seconds after its load.
+ * Rooms are always loaded from the primary in a transaction of their own, so a lagging replica or
+ * the uncommitted writes of the calling transaction never end up in the index.
+ */
+@Component
+public class RoomOccupancyIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoomOccupancyIndex.class);
+
+    @Autowired
+    private RoomNightRepository roomNightRepo;
+
+    @Autowired
+    private RoomRepository roomRepo;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.occupancy.max-rooms:100000}")
+    private long maxRooms;
+
+    @Value("${booking.occupancy.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${booking.occupancy.refresh-batch-size:1000}")
+    private int refreshBatchSize;
+
+    private Cache<Long, RoomOccupancy> rooms;
+
+    private TransactionTemplate loadTransaction;
+
+    /**
+     * Key of the changes waiting for the commit among the resources of the current transaction.
+     */
+    private final Object pendingChanges = new Object();
+
+    @PostConstruct
+    public void init() {
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        rooms = Caffeine.newBuilder()
+            .maximumSize(maxRooms)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+
+    public boolean covers(Long roomId, LocalDate date) {
+        return occupancyOf(roomId).covers(date);
+    }
+
+    public boolean isFree(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return occupancyOf(roomId).isFree(startDate, endDate);
+    }
+
+    public BitSet freeNights(Long roomId, LocalDate startDate, int days) {
+        return occupancyOf(roomId).freeNights(startDate, days);
+    }
+
+    public void reserve(Long roomId, LocalDate startDate, LocalDate endDate) {
+        // Rooms not loaded yet will read this reservation from the database on first access
+        afterCommit(roomId, occupancy -> occupancy.reserve(startDate, endDate));
+    }
+
+    public void release(Long roomId, LocalDate startDate, LocalDate endDate) {
+        afterCommit(roomId, occupancy -> occupancy.release(startDate, endDate));
+    }
+
+    public RoomOccupancy occupancy(Long roomId) {
+        return occupancyOf(roomId);
+    }
+
+    /**
+     * Returns the occupancy of the room if it is already loaded, without reading the database.
+     */
+    public RoomOccupancy loadedOccupancy(Long roomId) {
+        return rooms.getIfPresent(roomId);
+    }
+
+    public void evict(Long roomId) {
+        rooms.invalidate(roomId);
+    }
+
+    /**
+     * Drops the loaded rooms whose version changed or which no longer exist, reading the versions
+     * of each shard in batches of booking.occupancy.refresh-batch-size. Returns how many were dropped.
+     */
+    @Scheduled(fixedDelayString = "${booking.occupancy.refresh-delay-ms:1000}")
+    public int refresh() {
+        int dropped = 0;
+        try {
+            Map<Long, RoomOccupancy> loaded = rooms.asMap();
+            for (Map.Entry<Integer, List<Long>> shardRooms : shardRouter.groupByShard(new ArrayList<>(loaded.keySet())).entrySet()) {
+                List<Long> roomIds = shardRooms.getValue();
+                for (int from = 0; from < roomIds.size(); from += refreshBatchSize) {
+                    List<Long> batch = roomIds.subList(from, Math.min(from + refreshBatchSize, roomIds.size()));
+                    Map<Long, Long> versions = shardRouter.onShard(shardRooms.getKey(), () -> roomRepo.findVersionsByIds(batch)).stream()
+                        .collect(Collectors.toMap(RoomVersion::getRoomId, RoomVersion::getVersion));
+                    for (Long roomId : batch) {
+                        RoomOccupancy occupancy = loaded.get(roomId);
+                        // Only the occupancy that was checked is dropped, not one loaded again meanwhile
+                        if(occupancy != null && (!versions.containsKey(roomId) || !Objects.equals(versions.get(roomId), occupancy.getRoomVersion()))
+                            && loaded.remove(roomId, occupancy)){
+                            dropped++;
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // The rooms are checked again on the next refresh
+            LOGGER.warn("Occupancy refresh failed", e);
+        }
+        return dropped;
+    }
+
+    private void afterCommit(Long roomId, Consumer<RoomOccupancy> change) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            rooms.asMap().computeIfPresent(roomId, (id, occupancy) -> {
+                change.accept(occupancy);
+                return occupancy;
+            });
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, List<Consumer<RoomOccupancy>>> changes = (Map<Long, List<Consumer<RoomOccupancy>>>) TransactionSynchronizationManager.getResource(pendingChanges);
+        if(changes == null){
+            Map<Long, List<Consumer<RoomOccupancy>>> pending = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(pendingChanges, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // A room loaded meanwhile either has the changes and the bump, or neither and its older version drops it
+                    pending.forEach((id, roomChanges) -> rooms.asMap().computeIfPresent(id, (key, occupancy) -> {
+                        roomChanges.forEach(roomChange -> roomChange.accept(occupancy));
+                        occupancy.advanceRoomVersion();
+                        return occupancy;
+                    }));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(pendingChanges);
+                }
+            });
+            changes = pending;
+        }
+        changes.computeIfAbsent(roomId, id -> new ArrayList<>()).add(change);
+    }
+
+    private RoomOccupancy occupancyOf(Long roomId) {
+        RoomOccupancy occupancy = rooms.getIfPresent(roomId);
+        if(occupancy != null){
+            return occupancy;
+        }
+        // Loaded outside the cache, so the query never holds up the other rooms, and the first load kept
+        RoomOccupancy loaded = load(roomId);
+        // Unknown rooms are not kept, so made up ids can't fill the index
+        if(loaded == null){
+            throw new NotFoundException("Room not found for id: " + roomId);
+        }
+        RoomOccupancy current = rooms.asMap().putIfAbsent(roomId, loaded);
+        return current != null ? current : loaded;
+    }
+
+    private RoomOccupancy load(Long roomId) {
+        return loadTransaction.execute(status -> {
+            // The version is read first, so a change committed while the nights are read makes the next refresh drop them
+            Long version = roomRepo.findVersionById(roomId).orElse(null);
+            if(version == null){
+                return null;
+            }
+            LocalDate today = LocalDate.now();
+            RoomOccupancy occupancy = new RoomOccupancy(today, version);
+            for (LocalDate night : roomNightRepo.findNightsByRoomFrom(roomId, today)) {
+                occupancy.reserveNight(night);
+            }
+            return occupancy;
+        });
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.alten.booking.outbox;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.alten.booking.domain.ReservationEvent;
+
+/**
+ * Publishes every event to the in-process @EventListener methods taking a ReservationEvent.
+ */
+@Component
+@ConditionalOnProperty(value = "booking.outbox.sink", havingValue = "application", matchIfMissing = true)
+public class ApplicationEventSink implements ReservationEventSink {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Override
+    public void publish(List<ReservationEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.alten.booking.outbox;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.alten.booking.domain.ReservationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Appends every event as a JSON line to booking.outbox.file.
+ */
+@Component
+@ConditionalOnProperty(value = "booking.outbox.sink", havingValue = "file")
+public class FileEventSink implements ReservationEventSink {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${booking.outbox.file:reservation-events.jsonl}")
+    private String file;
+
+    @Override
+    public void publish(List<ReservationEvent> events) throws IOException {
+        Path path = Paths.get(file);
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ReservationEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.write('\n');
+            }
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.alten.booking.outbox;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.alten.booking.domain.ReservationEvent;
+
+/**
+ * Stands in for a message broker producer, logging each batch it would send.
+ */
+@Component
+@ConditionalOnProperty(value = "booking.outbox.sink", havingValue = "log")
+public class LoggingEventSink implements ReservationEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingEventSink.class);
+
+    @Override
+    public void publish(List<ReservationEvent> events) {
+        LOGGER.info("Sending {} reservation events, ids {} to {}", events.size(), events.get(0).getId(), events.get(events.size() - 1).getId());
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.alten.booking.outbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.ReservationEvent;
+import com.alten.booking.repository.ReservationEventRepository;
+import com.alten.booking.sharding.ShardRouter;
+
+/**
+ * Moves the unpublished outbox events to the sink in batches, marking each batch as published
+ * in the transaction that read it. Delivery is at least once: a batch whose transaction fails
+ * after the sink accepted it is published again.
+ */
+@Component
+public class OutboxRelay {
+
+    @Autowired
+    private ReservationEventRepository eventRepo;
+
+    @Autowired
+    private ReservationEventSink sink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${booking.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${booking.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    /**
+     * Relays batches until the outbox of every shard is drained, returning how many events were published.
+     * The events of a reservation are published in the order they were committed.
+     */
+    public int relay() {
+        return shardRouter.onEachShard(this::relayShard).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Deletes the events published more than booking.outbox.retention-hours ago on every shard, returning how many were deleted.
+     */
+    public int purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        return shardRouter.onEachShard(() -> transactionTemplate.execute(status -> eventRepo.deletePublishedBefore(before)))
+            .stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private int relayShard() {
+        int published = 0;
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+            published += relayed;
+        } while(relayed == batchSize);
+        return published;
+    }
+
+    private int relayBatch() {
+        List<ReservationEvent> events = eventRepo.findUnpublished(PageRequest.of(0, batchSize));
+        if(events.isEmpty()){
+            return 0;
+        }
+        try {
+            sink.publish(events);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not publish the reservation events from id " + events.get(0).getId(), e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> event.setPublishedAt(now));
+        return events.size();
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.alten.booking.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@ConditionalOnProperty(value = "booking.outbox.relay.enabled", matchIfMissing = true)
+public class OutboxScheduling {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxScheduling.class);
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Scheduled(fixedDelayString = "${booking.outbox.relay.delay-ms:1000}")
+    public void relayEvents() {
+        try {
+            relay.relay();
+        } catch (RuntimeException e) {
+            // The events stay unpublished and are retried by the next run
+            LOGGER.warn("Reservation events relay failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.purge-delay-ms:3600000}")
+    public void purgeEvents() {
+        try {
+            relay.purgePublished();
+        } catch (RuntimeException e) {
+            // The published events are deleted by the next run
+            LOGGER.warn("Reservation events purge failed", e);
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.alten.booking.outbox;
+
+import java.util.List;
+
+import com.alten.booking.domain.ReservationEvent;
+
+/**
+ * Receives the relayed reservation events in id order. A failing publish is retried with the same events
+ * by the next relay run, so sinks must tolerate duplicates.
+ */
+public interface ReservationEventSink {
+
+    void publish(List<ReservationEvent> events) throws Exception;
+
+}
@@ -0,0 +1,35 @@
+package com.alten.booking.outbox;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.alten.booking.domain.EventTypeEnum;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.ReservationEvent;
+
+@Component
+public class ReservationOutbox {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Queues an event with the current state of the reservation, committed or rolled back with the change itself.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Reservation reservation, EventTypeEnum type) {
+        // The changes of a reservation are serialized by its room, so numbering them on the reservation follows their commit order
+        if(type != EventTypeEnum.CREATED){
+            reservation.setEventSequence(reservation.getEventSequence() + 1);
+        }
+        entityManager.persist(new ReservationEvent(null, reservation.getId(), reservation.getEventSequence(), reservation.getRoom().getId(), reservation.getGuestEmail(),
+            type.toString(), reservation.getStatus(), reservation.getStartDate(), reservation.getEndDate(), LocalDateTime.now(), null));
+    }
+
+}
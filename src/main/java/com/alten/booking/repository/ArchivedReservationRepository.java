@@ -0,0 +1,39 @@
+package com.alten.booking.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.ArchivedReservation;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.guest.GuestHash;
+
+@Repository
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long>, ArchivedReservationRepositoryCustom{
+
+    @Query("SELECT new com.alten.booking.dto.ReservationDto(r.id, r.room.id, r.guestEmail, r.startDate, r.endDate, r.status) FROM ArchivedReservation r WHERE r.id = :id")
+    Optional<ReservationDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT r.id FROM ArchivedReservation r WHERE r.guestHash = :guestHash AND r.guestEmail = :guestEmail")
+    List<Long> findIdsByGuest(@Param("guestHash") Long guestHash, @Param("guestEmail") String guestEmail, Pageable pageable);
+
+    @Query("SELECT r.id FROM ArchivedReservation r WHERE (r.guestHash = :guestHash OR r.guestHash IS NULL) AND r.guestEmail = :guestEmail")
+    List<Long> findIdsByGuestOrUnhashed(@Param("guestHash") Long guestHash, @Param("guestEmail") String guestEmail, Pageable pageable);
+
+    /**
+     * Checks if the guest has archived reservations through the guest index, stopping at the first match.
+     * The rows not hashed yet are checked too while the guest hash backfill runs.
+     */
+    default boolean existsByGuestEmail(String guestEmail, boolean unhashedGuests) {
+        Long guestHash = GuestHash.of(guestEmail);
+        PageRequest first = PageRequest.of(0, 1);
+        return !(unhashedGuests ? findIdsByGuestOrUnhashed(guestHash, guestEmail, first) : findIdsByGuest(guestHash, guestEmail, first)).isEmpty();
+    }
+
+}
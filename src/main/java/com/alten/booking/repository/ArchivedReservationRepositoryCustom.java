@@ -0,0 +1,17 @@
+package com.alten.booking.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.alten.booking.dto.ReservationDto;
+
+public interface ArchivedReservationRepositoryCustom {
+
+    Page<ReservationDto> findDtoPage(ReservationFilter filter, Pageable pageable);
+
+    Slice<ReservationDto> findDtoSlice(ReservationFilter filter, int size);
+
+    long countMatching(ReservationFilter filter);
+
+}
@@ -0,0 +1,11 @@
+package com.alten.booking.repository;
+
+import com.alten.booking.domain.ArchivedReservation;
+
+public class ArchivedReservationRepositoryCustomImpl extends ReservationDtoQueries<ArchivedReservation> implements ArchivedReservationRepositoryCustom {
+
+    public ArchivedReservationRepositoryCustomImpl() {
+        super(ArchivedReservation.class);
+    }
+
+}
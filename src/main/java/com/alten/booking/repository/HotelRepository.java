@@ -0,0 +1,11 @@
+package com.alten.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.Hotel;
+
+@Repository
+public interface HotelRepository extends JpaRepository<Hotel, Long>{
+    
+}
@@ -0,0 +1,31 @@
+package com.alten.booking.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.JobLock;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String>{
+
+    /**
+     * Takes or extends the lease of the job unless another owner holds it or the job is completed, returning 0 then.
+     */
+    @Modifying
+    @Query("UPDATE JobLock j SET j.owner = :owner, j.lockedUntil = :until WHERE j.name = :name AND j.completedAt IS NULL AND (j.owner = :owner OR j.lockedUntil IS NULL OR j.lockedUntil < :now)")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE JobLock j SET j.lockedUntil = NULL WHERE j.name = :name AND j.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+
+    @Modifying
+    @Query("UPDATE JobLock j SET j.completedAt = :now, j.lockedUntil = NULL WHERE j.name = :name AND j.owner = :owner")
+    int complete(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+}
@@ -0,0 +1,71 @@
+package com.alten.booking.repository;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.alten.booking.dto.ReservationDto;
+
+/**
+ * Dto queries of an entity mapped like a reservation, reading only the columns of the dto.
+ * The JPQL of each filter shape and sort is rendered once and reused, so Hibernate finds its
+ * translated SQL in the query plan cache instead of building and rendering a criteria query per call.
+ */
+public abstract class ReservationDtoQueries<T> {
+
+    private static final Sort KEYSET_SORT = Sort.by("startDate", "id");
+
+    private final String entityName;
+
+    private final ConcurrentMap<String, String> queryShapes = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    protected ReservationDtoQueries(Class<T> entityClass) {
+        this.entityName = entityClass.getSimpleName();
+    }
+
+    public Page<ReservationDto> findDtoPage(ReservationFilter filter, Pageable pageable) {
+        TypedQuery<ReservationDto> query = dtoQuery(filter, pageable.getSort());
+        if(pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> countMatching(filter));
+    }
+
+    public Slice<ReservationDto> findDtoSlice(ReservationFilter filter, int size) {
+        // Read one extra row to know if there is a next slice
+        List<ReservationDto> content = dtoQuery(filter, KEYSET_SORT).setMaxResults(size + 1).getResultList();
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size, KEYSET_SORT), hasNext);
+    }
+
+    public long countMatching(ReservationFilter filter) {
+        String jpql = queryShapes.computeIfAbsent("count:" + filter.getShape(),
+            shape -> "SELECT COUNT(r) FROM " + entityName + " r" + filter.where());
+        return filter.bind(entityManager.createQuery(jpql, Long.class)).getSingleResult();
+    }
+
+    private TypedQuery<ReservationDto> dtoQuery(ReservationFilter filter, Sort sort) {
+        String jpql = queryShapes.computeIfAbsent("dto:" + filter.getShape() + ":" + sort, shape -> QueryUtils.applySorting(
+            "SELECT new com.alten.booking.dto.ReservationDto(r.id, r.room.id, r.guestEmail, r.startDate, r.endDate, r.status) FROM "
+                + entityName + " r" + filter.where(), sort, "r"));
+        return filter.bind(entityManager.createQuery(jpql, ReservationDto.class));
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.alten.booking.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.ReservationEvent;
+
+@Repository
+public interface ReservationEventRepository extends JpaRepository<ReservationEvent, Long>{
+
+    /**
+     * Locks the first unpublished events in reservation sequence order, so relays of other instances wait instead of publishing them twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ReservationEvent e WHERE e.publishedAt IS NULL ORDER BY e.reservationId, e.reservationSequence")
+    List<ReservationEvent> findUnpublished(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ReservationEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+
+}
@@ -0,0 +1,109 @@
+package com.alten.booking.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.Query;
+
+import com.alten.booking.dto.ReservationCursor;
+import com.alten.booking.dto.ReservationPageRequestDto;
+import com.alten.booking.guest.GuestHash;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Optional filters of a reservation search, shared by the reservation table and its archive.
+ * The filters set make up the shape of the query, each shape being rendered once.
+ */
+@Data
+@AllArgsConstructor
+public class ReservationFilter {
+
+    private static final int GUEST_EMAIL = 1;
+    private static final int START_DATE = 2;
+    private static final int END_DATE = 4;
+    private static final int ROOM = 8;
+    private static final int CURSOR = 16;
+    private static final int UNHASHED_GUESTS = 32;
+
+    private String guestEmail;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long roomId;
+    private ReservationCursor cursor;
+
+    /**
+     * Also matches the guest email on the reservations not hashed yet, while the guest hash backfill runs.
+     */
+    private boolean unhashedGuests;
+
+    public static ReservationFilter of(ReservationPageRequestDto dto, boolean unhashedGuests) {
+        return new ReservationFilter(dto.getGuestEmail(), dto.getStartDate(), dto.getEndDate(), dto.getRoomId(), null, unhashedGuests);
+    }
+
+    /**
+     * Returns the same filters restricted to the reservations after the cursor, in start date and id order.
+     */
+    public ReservationFilter after(ReservationCursor cursor) {
+        return new ReservationFilter(guestEmail, startDate, endDate, roomId, cursor, unhashedGuests);
+    }
+
+    public int getShape() {
+        return (guestEmail != null ? GUEST_EMAIL : 0)
+            | (startDate != null ? START_DATE : 0)
+            | (endDate != null ? END_DATE : 0)
+            | (roomId != null ? ROOM : 0)
+            | (cursor != null ? CURSOR : 0)
+            | (guestEmail != null && unhashedGuests ? UNHASHED_GUESTS : 0);
+    }
+
+    /**
+     * Renders the where clause of the shape over the alias r.
+     */
+    String where() {
+        List<String> conditions = new ArrayList<>();
+        if(guestEmail != null) {
+            // The hash leads the guest index, the email rules out other guests sharing it
+            conditions.add(unhashedGuests
+                ? "(r.guestHash = :guestHash OR r.guestHash IS NULL) AND r.guestEmail = :guestEmail"
+                : "r.guestHash = :guestHash AND r.guestEmail = :guestEmail");
+        }
+        if(startDate != null) {
+            conditions.add("r.startDate >= :startDate");
+        }
+        if(endDate != null) {
+            conditions.add("r.startDate <= :endDate");
+        }
+        if(roomId != null) {
+            conditions.add("r.room.id = :roomId");
+        }
+        if(cursor != null) {
+            conditions.add("(r.startDate > :cursorStartDate OR (r.startDate = :cursorStartDate AND r.id > :cursorId))");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    <T extends Query> T bind(T query) {
+        if(guestEmail != null) {
+            query.setParameter("guestHash", GuestHash.of(guestEmail));
+            query.setParameter("guestEmail", guestEmail);
+        }
+        if(startDate != null) {
+            query.setParameter("startDate", startDate);
+        }
+        if(endDate != null) {
+            query.setParameter("endDate", endDate);
+        }
+        if(roomId != null) {
+            query.setParameter("roomId", roomId);
+        }
+        if(cursor != null) {
+            query.setParameter("cursorStartDate", cursor.getStartDate());
+            query.setParameter("cursorId", cursor.getId());
+        }
+        return query;
+    }
+
+}
@@ -1,29 +1,83 @@
 package com.alten.booking.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationDto;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long>, JpaSpecificationExecutor<Reservation>{
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationRepositoryCustom{
+
+    /**
+     * Statuses whose reservations take their room nights.
+     */
+    List<String> TAKING_STATUSES = Arrays.asList(StatusEnum.RESERVED.toString(), StatusEnum.HELD.toString());
 
     Page<Reservation> findAll(Pageable pageable);
     
+    @Query("SELECT new com.alten.booking.dto.ReservationDto(r.id, r.room.id, r.guestEmail, r.startDate, r.endDate, r.status) FROM Reservation r WHERE r.id = :id")
+    Optional<ReservationDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT r.room.id FROM Reservation r WHERE r.id = :id")
+    Optional<Long> findRoomIdById(@Param("id") Long id);
+
     List<Reservation> findAllByRoomIdAndStatus(Long roomId, String status);
 
-    @Query("SELECT COUNT(r) FROM Reservation r WHERE r.room.id = :roomId AND r.status = 'RESERVED' AND (r.startDate BETWEEN :startDate AND :endDate) AND (r.endDate BETWEEN :startDate AND :endDate)")
-    int findTotalReservationsByRoomAndDate(@Param("roomId") Long roomId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    @Query("SELECT r FROM Reservation r WHERE r.status IN ('RESERVED', 'HELD') AND r.endDate > :today AND r.id > :afterId AND NOT EXISTS (SELECT n.id FROM RoomNight n WHERE n.reservationId = r.id) ORDER BY r.id")
+    List<Reservation> findReservedWithoutNights(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT r.id FROM Reservation r WHERE r.room.id = :roomId AND r.status IN :statuses AND r.startDate < :endDate AND r.endDate > :startDate")
+    List<Long> findOverlappingIds(@Param("roomId") Long roomId, @Param("statuses") Collection<String> statuses, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+
+    @Query("SELECT r.id FROM Reservation r WHERE r.room.id = :roomId AND r.id <> :reservationId AND r.status IN :statuses AND r.startDate < :endDate AND r.endDate > :startDate")
+    List<Long> findOverlappingIdsExcept(@Param("roomId") Long roomId, @Param("statuses") Collection<String> statuses, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("reservationId") Long reservationId, Pageable pageable);
+
+    /**
+     * Checks if any reserved or held night of the room overlaps [startDate, endDate), stopping at the first match.
+     */
+    default boolean existsOverlappingReservation(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return !findOverlappingIds(roomId, TAKING_STATUSES, startDate, endDate, PageRequest.of(0, 1)).isEmpty();
+    }
+
+    default boolean existsOverlappingReservationExcept(Long roomId, LocalDate startDate, LocalDate endDate, Long reservationId) {
+        return !findOverlappingIdsExcept(roomId, TAKING_STATUSES, startDate, endDate, reservationId, PageRequest.of(0, 1)).isEmpty();
+    }
+
+    /**
+     * Finds the holds ended by now, oldest first, through the held_until index so only live holds are read.
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.heldUntil <= :now ORDER BY r.heldUntil")
+    List<Long> findExpiredHoldIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT DISTINCT r.room.id FROM Reservation r WHERE r.id IN :ids AND r.status = 'HELD' AND r.heldUntil <= :now")
+    List<Long> findExpiredHoldRoomIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r FROM Reservation r WHERE r.id IN :ids AND r.status = 'HELD' AND r.heldUntil <= :now")
+    List<Reservation> findExpiredHolds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Finds the oldest reservations ended before the cutoff through the end_date index, holds excepted.
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.endDate < :cutoff AND r.status <> 'HELD' ORDER BY r.endDate, r.id")
+    List<Reservation> findEndedBefore(@Param("cutoff") LocalDate cutoff, Pageable pageable);
 
-    @Query("SELECT COUNT(r) FROM Reservation r WHERE r.room.id = :roomId AND r.id <> :reservationId AND r.status = 'RESERVED' AND (r.startDate BETWEEN :startDate AND :endDate) AND (r.endDate BETWEEN :startDate AND :endDate)")
-    int findTotalReservationsByRoomAndDateExceptCurrentReservation(@Param("roomId") Long roomId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, @Param("reservationId") Long reservationId);
+    @Modifying
+    @Query("DELETE FROM Reservation r WHERE r.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
     
 }
@@ -0,0 +1,24 @@
+package com.alten.booking.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.alten.booking.dto.ReservationDto;
+
+public interface ReservationRepositoryCustom {
+
+    /**
+     * Finds a page of the reservations matching the filter, reading only the columns of the dto.
+     */
+    Page<ReservationDto> findDtoPage(ReservationFilter filter, Pageable pageable);
+
+    /**
+     * Finds the first reservations matching the filter ordered by start date and id,
+     * without counting the total matches.
+     */
+    Slice<ReservationDto> findDtoSlice(ReservationFilter filter, int size);
+
+    long countMatching(ReservationFilter filter);
+
+}
@@ -0,0 +1,11 @@
+package com.alten.booking.repository;
+
+import com.alten.booking.domain.Reservation;
+
+public class ReservationRepositoryCustomImpl extends ReservationDtoQueries<Reservation> implements ReservationRepositoryCustom {
+
+    public ReservationRepositoryCustomImpl() {
+        super(Reservation.class);
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.alten.booking.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.RoomNight;
+import com.alten.booking.domain.RoomNightId;
+
+@Repository
+public interface RoomNightRepository extends JpaRepository<RoomNight, RoomNightId>{
+
+    @Query("SELECT n.id.night FROM RoomNight n WHERE n.id.roomId = :roomId AND n.id.night >= :from ORDER BY n.id.night")
+    List<LocalDate> findNightsByRoomFrom(@Param("roomId") Long roomId, @Param("from") LocalDate from);
+
+    @Query("SELECT n.id FROM RoomNight n WHERE n.id.roomId IN :roomIds AND n.id.night >= :from")
+    List<RoomNightId> findNightsByRoomsFrom(@Param("roomIds") Collection<Long> roomIds, @Param("from") LocalDate from);
+
+    /**
+     * Returns the reserved nights of the rooms in [from, to), ordered by room and night.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT n.id FROM RoomNight n WHERE n.id.roomId IN :roomIds AND n.id.night >= :from AND n.id.night < :to ORDER BY n.id.roomId, n.id.night")
+    List<RoomNightId> findNights(@Param("roomIds") Collection<Long> roomIds, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Returns the reserved nights of the rooms in [from, to), a room without any of them coming once with a null night
+     * and an unknown room not coming at all.
+     */
+    @Query("SELECT new com.alten.booking.domain.RoomNightId(r.id, n.id.night) FROM Room r LEFT JOIN RoomNight n ON n.id.roomId = r.id AND n.id.night >= :from AND n.id.night < :to WHERE r.id IN :roomIds")
+    List<RoomNightId> findRoomsWithNights(@Param("roomIds") Collection<Long> roomIds, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.reservationId = :reservationId")
+    int deleteByReservationId(@Param("reservationId") Long reservationId);
+
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.reservationId IN :reservationIds")
+    int deleteByReservationIds(@Param("reservationIds") Collection<Long> reservationIds);
+
+}
@@ -1,11 +1,43 @@
 package com.alten.booking.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.alten.booking.domain.Room;
+import com.alten.booking.inventory.RoomType;
+import com.alten.booking.domain.RoomVersion;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long>{
+
+    @Query("SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId AND NOT EXISTS (SELECT n.id FROM RoomNight n WHERE n.id.roomId = r.id AND n.id.night >= :startDate AND n.id.night < :endDate) ORDER BY r.id")
+    List<Long> findAvailableRoomIds(@Param("hotelId") Long hotelId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId AND r.roomDetails.id = :roomDetailsId AND NOT EXISTS (SELECT n.id FROM RoomNight n WHERE n.id.roomId = r.id AND n.id.night >= :startDate AND n.id.night < :endDate) ORDER BY r.id")
+    List<Long> findAvailableRoomIdsOfType(@Param("hotelId") Long hotelId, @Param("roomDetailsId") Long roomDetailsId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+
+    @Query("SELECT DISTINCT new com.alten.booking.inventory.RoomType(r.hotel.id, r.roomDetails.id) FROM Room r")
+    List<RoomType> findRoomTypes();
+
+    /**
+     * Reads the version of the room, empty when the room does not exist.
+     */
+    @Query("SELECT COALESCE(v.version, 0) FROM Room r LEFT JOIN RoomVersion v ON v.roomId = r.id WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.alten.booking.domain.RoomVersion(r.id, COALESCE(v.version, 0)) FROM Room r LEFT JOIN RoomVersion v ON v.roomId = r.id WHERE r.id IN :ids")
+    List<RoomVersion> findVersionsByIds(@Param("ids") Collection<Long> ids);
+
+    List<Room> findAllByHotelIdAndRoomDetailsId(Long hotelId, Long roomDetailsId);
+
+    Optional<Room> findFirstByHotelIdAndRoomDetailsId(Long hotelId, Long roomDetailsId);
     
 }
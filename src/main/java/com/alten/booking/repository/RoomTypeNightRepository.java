@@ -0,0 +1,42 @@
+package com.alten.booking.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.RoomTypeNight;
+import com.alten.booking.domain.RoomTypeNightId;
+
+@Repository
+public interface RoomTypeNightRepository extends JpaRepository<RoomTypeNight, RoomTypeNightId>{
+
+    @Query("SELECT n.id.night FROM RoomTypeNight n WHERE n.id.hotelId = :hotelId AND n.id.roomDetailsId = :roomDetailsId AND n.id.night >= :from AND n.id.night < :to")
+    List<LocalDate> findNights(@Param("hotelId") Long hotelId, @Param("roomDetailsId") Long roomDetailsId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT n FROM RoomTypeNight n WHERE n.id.hotelId = :hotelId AND n.id.roomDetailsId = :roomDetailsId AND n.id.night >= :from AND n.id.night < :to ORDER BY n.id.night")
+    List<RoomTypeNight> findBetween(@Param("hotelId") Long hotelId, @Param("roomDetailsId") Long roomDetailsId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM RoomTypeNight n WHERE n.id.hotelId = :hotelId AND n.id.roomDetailsId = :roomDetailsId AND n.id.night >= :from AND n.id.night < :to ORDER BY n.id.night")
+    List<RoomTypeNight> findForUpdate(@Param("hotelId") Long hotelId, @Param("roomDetailsId") Long roomDetailsId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Takes a room of the type on the night if any is left, returning 0 when the night is sold out or not opened.
+     */
+    @Modifying
+    @Query("UPDATE RoomTypeNight n SET n.remaining = n.remaining - 1 WHERE n.id.hotelId = :hotelId AND n.id.roomDetailsId = :roomDetailsId AND n.id.night = :night AND n.remaining > 0")
+    int takeNight(@Param("hotelId") Long hotelId, @Param("roomDetailsId") Long roomDetailsId, @Param("night") LocalDate night);
+
+    @Modifying
+    @Query("UPDATE RoomTypeNight n SET n.remaining = n.remaining + 1 WHERE n.id.hotelId = :hotelId AND n.id.roomDetailsId = :roomDetailsId AND n.id.night >= :from AND n.id.night < :to")
+    int releaseNights(@Param("hotelId") Long hotelId, @Param("roomDetailsId") Long roomDetailsId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+}
@@ -0,0 +1,21 @@
+package com.alten.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.alten.booking.domain.RoomVersion;
+
+@Repository
+public interface RoomVersionRepository extends JpaRepository<RoomVersion, Long>, RoomVersionRepositoryCustom{
+
+    /**
+     * Bumps the version of the room unless it moved from the given version, returning 0 then.
+     */
+    @Modifying
+    @Query("UPDATE RoomVersion v SET v.version = v.version + 1 WHERE v.roomId = :roomId AND v.version = :version")
+    int bumpFrom(@Param("roomId") Long roomId, @Param("version") Long version);
+
+}
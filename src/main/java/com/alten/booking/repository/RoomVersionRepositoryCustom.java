@@ -0,0 +1,15 @@
+package com.alten.booking.repository;
+
+public interface RoomVersionRepositoryCustom {
+
+    /**
+     * Bumps the version of the room in a single statement, creating its row on the first bump.
+     */
+    int bump(Long roomId);
+
+    /**
+     * Creates the version row of a room never bumped, failing on its key if another transaction created it meanwhile.
+     */
+    int create(Long roomId);
+
+}
@@ -0,0 +1,34 @@
+package com.alten.booking.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.query.NativeQuery;
+
+import com.alten.booking.domain.RoomVersion;
+
+public class RoomVersionRepositoryCustomImpl implements RoomVersionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int bump(Long roomId) {
+        return execute("INSERT INTO room_version (room_id, version) VALUES (:roomId, 1) ON DUPLICATE KEY UPDATE version = version + 1", roomId);
+    }
+
+    @Override
+    public int create(Long roomId) {
+        return execute("INSERT INTO room_version (room_id, version) VALUES (:roomId, 1)", roomId);
+    }
+
+    private int execute(String sql, Long roomId) {
+        // Declared as only writing room versions, otherwise Hibernate would drop every region of the second-level cache
+        return entityManager.createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(RoomVersion.class)
+            .setParameter("roomId", roomId)
+            .executeUpdate();
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.alten.booking.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.RoomNightId;
+import com.alten.booking.dto.RoomAvailabilityBulkResponseDto;
+import com.alten.booking.dto.RoomAvailabilityQueryDto;
+import com.alten.booking.occupancy.RoomOccupancy;
+import com.alten.booking.repository.RoomNightRepository;
+import com.alten.booking.sharding.ShardRouter;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Answers many (room, start, end) availability queries at once, reading the nights of all their rooms
+ * with a single query per shard instead of one lookup per query.
+ * Like the room nights they are read from, the answers hold for the upcoming nights.
+ */
+@Service
+public class AvailabilityService {
+
+    /**
+     * Below this many queries the evaluation costs less than handing it to the pool.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    @Autowired
+    private RoomNightRepository roomNightRepo;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.availability.bulk-parallelism:4}")
+    private int parallelism;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private ForkJoinPool evaluationPool;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        evaluationPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluationPool.shutdown();
+    }
+
+    /**
+     * Queries with unparsable or empty date ranges, or an unknown room, are answered as not available.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public RoomAvailabilityBulkResponseDto checkAvailability(List<RoomAvailabilityQueryDto> queries) {
+        int count = queries.size();
+        LocalDate[] startDates = new LocalDate[count];
+        LocalDate[] endDates = new LocalDate[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                startDates[i] = LocalDate.parse(queries.get(i).getStartDate());
+                endDates[i] = LocalDate.parse(queries.get(i).getEndDate());
+            } catch (DateTimeParseException e) {
+                startDates[i] = null;
+            }
+        }
+        List<Integer> valid = IntStream.range(0, count)
+            .filter(i -> startDates[i] != null && startDates[i].isBefore(endDates[i]))
+            .boxed()
+            .collect(Collectors.toList());
+        Map<Long, RoomOccupancy> occupancies = new HashMap<>();
+        if(!valid.isEmpty()){
+            LocalDate from = valid.stream().map(i -> startDates[i]).min(LocalDate::compareTo).get();
+            LocalDate to = valid.stream().map(i -> endDates[i]).max(LocalDate::compareTo).get();
+            List<Long> roomIds = valid.stream().map(i -> queries.get(i).getRoomId()).distinct().collect(Collectors.toList());
+            shardRouter.groupByShard(roomIds).forEach((shard, ids) -> occupancies.putAll(shardRouter.onShard(shard,
+                () -> readOnlyTransaction.execute(status -> loadOccupancies(ids, from, to)))));
+        }
+        char[] available = new char[count];
+        if(count < PARALLEL_THRESHOLD){
+            IntStream.range(0, count).forEach(i -> available[i] = answer(occupancies, queries.get(i), startDates[i], endDates[i]));
+        }else{
+            // A parallel stream started from the pool runs on its workers, leaving the common pool alone
+            evaluationPool.submit(() -> IntStream.range(0, count).parallel()
+                .forEach(i -> available[i] = answer(occupancies, queries.get(i), startDates[i], endDates[i]))).join();
+        }
+        List<Long> unknownRoomIds = valid.stream().map(i -> queries.get(i).getRoomId())
+            .filter(roomId -> !occupancies.containsKey(roomId))
+            .distinct()
+            .collect(Collectors.toCollection(ArrayList::new));
+        return new RoomAvailabilityBulkResponseDto(new String(available), unknownRoomIds);
+    }
+
+    private Map<Long, RoomOccupancy> loadOccupancies(List<Long> roomIds, LocalDate from, LocalDate to) {
+        Map<Long, RoomOccupancy> occupancies = new HashMap<>();
+        for (RoomNightId night : roomNightRepo.findRoomsWithNights(roomIds, from, to)) {
+            RoomOccupancy occupancy = occupancies.computeIfAbsent(night.getRoomId(), roomId -> new RoomOccupancy(from));
+            if(night.getNight() != null){
+                occupancy.reserveNight(night.getNight());
+            }
+        }
+        return occupancies;
+    }
+
+    private char answer(Map<Long, RoomOccupancy> occupancies, RoomAvailabilityQueryDto query, LocalDate startDate, LocalDate endDate) {
+        RoomOccupancy occupancy = occupancies.get(query.getRoomId());
+        boolean free = occupancy != null && startDate != null && startDate.isBefore(endDate) && occupancy.isFree(startDate, endDate);
+        return free ? '1' : '0';
+    }
+
+}
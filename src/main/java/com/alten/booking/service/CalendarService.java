@@ -0,0 +1,146 @@
+package com.alten.booking.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomNightId;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.exceptions.NotFoundException;
+import com.alten.booking.repository.RoomNightRepository;
+import com.alten.booking.sharding.ShardRouter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Writes the availability of many rooms over a date window as run-length ranges of free nights.
+ * The room nights are read booking.calendar.page-rooms rooms at a time, each page in a transaction
+ * closed before the page is written, so a slow client never holds a database connection.
+ */
+@Service
+public class CalendarService {
+
+    public static final int MAX_CALENDAR_ROOMS = 500;
+    public static final int MAX_CALENDAR_DAYS = 366;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomNightRepository roomNightRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.calendar.page-rooms:50}")
+    private int pageRooms;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void validateCalendar(List<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        if(!startDate.isBefore(endDate)){
+            throw new InvalidReservationException("Start date must be before end date");
+        }
+        if(ChronoUnit.DAYS.between(startDate, endDate) > MAX_CALENDAR_DAYS){
+            throw new InvalidReservationException("The calendar can't be longer than " + MAX_CALENDAR_DAYS + " days");
+        }
+        if(roomIds.isEmpty() || roomIds.size() > MAX_CALENDAR_ROOMS){
+            throw new InvalidReservationException("The calendar must have between 1 and " + MAX_CALENDAR_ROOMS + " rooms");
+        }
+        Map<Long, Room> rooms = new HashMap<>();
+        shardRouter.groupByShard(roomIds).forEach((shard, ids) -> rooms.putAll(shardRouter.onShard(shard, () -> roomService.findAllById(ids))));
+        for (Long roomId : roomIds) {
+            if(!rooms.containsKey(roomId)){
+                throw new NotFoundException("Room not found for id: " + roomId);
+            }
+        }
+    }
+
+    /**
+     * Writes {"start", "end", "rooms": [{"roomId", "free": [[from, to], ...]}]}, every range being
+     * a run of free nights from its first night (inclusive) to its last night's next day (exclusive).
+     * Rooms are written by ascending id, shard after shard in the sharded mode.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public void writeCalendar(List<Long> roomIds, LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            json.writeStringField("start", startDate.toString());
+            json.writeStringField("end", endDate.toString());
+            json.writeArrayFieldStart("rooms");
+            for (Map.Entry<Integer, List<Long>> shardRooms : shardRouter.groupByShard(roomIds).entrySet()) {
+                Long[] sortedIds = shardRooms.getValue().stream().distinct().sorted().toArray(Long[]::new);
+                for (int from = 0; from < sortedIds.length; from += pageRooms) {
+                    List<Long> page = Arrays.asList(sortedIds).subList(from, Math.min(from + pageRooms, sortedIds.length));
+                    List<RoomNightId> nights = shardRouter.onShard(shardRooms.getKey(),
+                        () -> readOnlyTransaction.execute(status -> roomNightRepo.findNights(page, startDate, endDate)));
+                    writeRooms(page, nights, startDate, endDate, json);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private void writeRooms(List<Long> sortedIds, List<RoomNightId> nights, LocalDate startDate, LocalDate endDate, JsonGenerator json) throws IOException {
+        Iterator<RoomNightId> reserved = nights.iterator();
+        RoomNightId next = reserved.hasNext() ? reserved.next() : null;
+        for (Long roomId : sortedIds) {
+            json.writeStartObject();
+            json.writeNumberField("roomId", roomId);
+            json.writeArrayFieldStart("free");
+            LocalDate freeFrom = startDate;
+            // Nights come ordered by room then night, so each room consumes its own run of rows
+            while(next != null && next.getRoomId().equals(roomId)){
+                if(freeFrom.isBefore(next.getNight())){
+                    writeRange(json, freeFrom, next.getNight());
+                }
+                freeFrom = next.getNight().plusDays(1);
+                next = reserved.hasNext() ? reserved.next() : null;
+            }
+            if(freeFrom.isBefore(endDate)){
+                writeRange(json, freeFrom, endDate);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private void writeRange(JsonGenerator json, LocalDate from, LocalDate to) throws IOException {
+        json.writeStartArray();
+        json.writeString(from.toString());
+        json.writeString(to.toString());
+        json.writeEndArray();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.alten.booking.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.exceptions.NotFoundException;
+import com.alten.booking.repository.HotelRepository;
+import com.alten.booking.repository.RoomRepository;
+import com.alten.booking.sharding.ShardRouter;
+
+@Service
+public class HotelService {
+
+    @Autowired
+    private HotelRepository hotelRepo;
+
+    @Autowired
+    private RoomRepository roomRepo;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    /**
+     * Finds the rooms of the hotel with every night from startDate to endDate free, in a single query.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    @Transactional(readOnly = true)
+    public List<Long> findAvailableRoomIds(Long hotelId, LocalDate startDate, LocalDate endDate) {
+        if(!startDate.isBefore(endDate)){
+            throw new InvalidReservationException("Start date must be before end date");
+        }
+        return shardRouter.onHotel(hotelId, () -> {
+            List<Long> roomIds = roomRepo.findAvailableRoomIds(hotelId, startDate, endDate);
+            // An empty result is only worth a second query to tell an unknown hotel apart
+            if(roomIds.isEmpty() && !hotelRepo.existsById(hotelId)){
+                throw new NotFoundException("Hotel not found for id: " + hotelId);
+            }
+            return roomIds;
+        });
+    }
+
+}
@@ -2,35 +2,81 @@ package com.alten.booking.service;
 
 import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
 
+import com.alten.booking.archive.ReservationArchiver;
 import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.EventTypeEnum;
 import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomNightId;
 import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationBatchResultDto;
 import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationCursor;
 import com.alten.booking.dto.ReservationDeleteDto;
 import com.alten.booking.dto.ReservationDto;
 import com.alten.booking.dto.ReservationPageRequestDto;
 import com.alten.booking.dto.ReservationPageResponseDto;
 import com.alten.booking.dto.ReservationUpdateDto;
 import com.alten.booking.dto.RoomCheckDto;
+import com.alten.booking.dto.RoomTypeReservationCreateDto;
 import com.alten.booking.exceptions.NotFoundException;
+import com.alten.booking.datasource.ReadYourWrites;
+import com.alten.booking.guest.GuestHashBackfill;
+import com.alten.booking.hold.HoldQueue;
+import com.alten.booking.idempotency.IdempotencyStore;
+import com.alten.booking.inventory.LockedRoomTypeNights;
+import com.alten.booking.inventory.RoomTypeInventory;
+import com.alten.booking.locking.RoomLocks;
+import com.alten.booking.outbox.ReservationOutbox;
+import com.alten.booking.metrics.BookingMetrics;
+import com.alten.booking.occupancy.AvailabilitySnapshot;
+import com.alten.booking.occupancy.AvailabilitySnapshots;
+import com.alten.booking.occupancy.RoomOccupancy;
+import com.alten.booking.occupancy.RoomOccupancyIndex;
+import com.alten.booking.repository.ArchivedReservationRepository;
+import com.alten.booking.repository.ReservationFilter;
 import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.sharding.ShardRouter;
 import com.alten.booking.exceptions.InvalidReservationException;
 import com.alten.booking.exceptions.MaxReserveAdvanceDaysException;
 import com.alten.booking.exceptions.MaxReserveDaysException;
-import com.alten.booking.specifications.ReservationSpecifications;
 
 @Service
 public class ReservationService {
+
+    private static final Comparator<ReservationDto> KEYSET_ORDER = Comparator
+        .comparing((ReservationDto reservation) -> LocalDate.parse(reservation.getStartDate()))
+        .thenComparing(ReservationDto::getReservationId);
     
     @Autowired
     private ReservationRepository reservationRepo;
@@ -38,22 +84,178 @@ public class ReservationService {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private AvailabilitySnapshots availabilitySnapshots;
+
+    @Autowired
+    private RoomLocks roomLocks;
+
+    @Autowired
+    private RoomNightService roomNightService;
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private ReservationOutbox outbox;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private HoldQueue holdQueue;
+
+    @Autowired
+    private ArchivedReservationRepository archiveRepo;
+
+    @Autowired
+    private ReservationArchiver reservationArchiver;
+
+    @Autowired
+    private RoomTypeInventory roomTypeInventory;
+
+    @Autowired
+    private GuestHashBackfill guestHashBackfill;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${booking.hold.ttl-seconds:600}")
+    private long holdTtlSeconds;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
     public Reservation findById(Long id) {
-        Optional<Reservation> result = reservationRepo.findById(id);
+        Optional<Reservation> result = shardRouter.onReservation(id, () -> reservationRepo.findById(id));
 		return result.orElseThrow(() -> new NotFoundException("Reservation not found for id: " + id));
     }
 
     public List<Reservation> findAllReservationsByRoom(Long roomId) {
-        return reservationRepo.findAllByRoomIdAndStatus(roomId, StatusEnum.RESERVED.toString());
+        return shardRouter.onRoom(roomId, () -> reservationRepo.findAllByRoomIdAndStatus(roomId, StatusEnum.RESERVED.toString()));
     }
 
+    @Timed(value = "booking.service", histogram = true)
     public ReservationDto findDtoById(Long id) {
-		return new ReservationDto(findById(id));
+        Optional<ReservationDto> result = shardRouter.onReservation(id, () -> {
+            Optional<ReservationDto> live = reservationRepo.findDtoById(id);
+            // Reservations ended long ago may have been archived
+            return live.isPresent() ? live : archiveRepo.findDtoById(id);
+        });
+		return result.orElseThrow(() -> new NotFoundException("Reservation not found for id: " + id));
     }
 
+    @Timed(value = "booking.service", histogram = true)
     public ReservationDto validateAndCreateReservation(ReservationCreateDto dto){
-        validateToCreateReservation(dto); 
-        return new ReservationDto(createReservation(dto));
+        return validateAndCreateReservation(dto, null);
+    }
+
+    /**
+     * Creates the reservation once per idempotency key, a retry with the same key getting the reservation
+     * created by the first attempt without running the booking again.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public ReservationDto validateAndCreateReservation(ReservationCreateDto dto, String idempotencyKey){
+        // The key is kept on the shard of the room, next to the reservation it created
+        return shardRouter.onRoom(dto.getRoomId(), () -> findOrCreateReservation(dto, idempotencyKey));
+    }
+
+    private ReservationDto findOrCreateReservation(ReservationCreateDto dto, String idempotencyKey) {
+        if(idempotencyKey == null){
+            return createReservationOnce(dto, null, null);
+        }
+        String fingerprint = idempotencyStore.fingerprint(dto);
+        Optional<ReservationDto> stored = idempotencyStore.find(idempotencyKey, fingerprint);
+        if(stored.isPresent()){
+            return stored.get();
+        }
+        try {
+            return createReservationOnce(dto, idempotencyKey, fingerprint);
+        } catch (RuntimeException e) {
+            // A concurrent retry with the same key may have just booked it
+            return idempotencyStore.find(idempotencyKey, fingerprint).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Holds the room for the reservation dates during booking.hold.ttl-seconds, e.g. while the payment runs.
+     * The hold takes the nights like a reservation until it is confirmed by updating its status to RESERVED,
+     * canceled, or released by the hold expiry.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public ReservationDto holdReservation(ReservationCreateDto dto) {
+        return shardRouter.onRoom(dto.getRoomId(), () -> {
+            ReservationDto held = roomLocks.inTransaction(() -> {
+                validateToCreateReservation(dto);
+                Reservation reservation = createReservation(dto, LocalDateTime.now().plusSeconds(holdTtlSeconds));
+                holdQueue.schedule(reservation.getId(), reservation.getHeldUntil());
+                return new ReservationDto(reservation);
+            }, dto.getRoomId());
+            readYourWrites.recordWrite(dto.getGuestEmail());
+            return held;
+        });
+    }
+
+    /**
+     * Books any room of the hotel with the given room details. The nights are taken from the room type inventory
+     * first, and the room is only picked once they are, among the rooms of the type free for the whole stay.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public ReservationDto validateAndCreateRoomTypeReservation(RoomTypeReservationCreateDto dto) {
+        return shardRouter.onHotel(dto.getHotelId(), () -> {
+            ReservationCreateDto createDto = new ReservationCreateDto(dto.getGuestEmail(), dto.getStartDate(), dto.getEndDate(), null);
+            if(!hasValidDatesEntries(new ReservationDto(createDto))){
+                throw new InvalidReservationException("Invalid dates informed");
+            }
+            LocalDate startDate = LocalDate.parse(dto.getStartDate());
+            LocalDate endDate = LocalDate.parse(dto.getEndDate());
+            // Validated apart, so the booking transaction only reads the rooms once its nights are taken
+            Room anyRoom = roomLocks.inTransaction(() -> {
+                Room room = roomService.findAnyOfType(dto.getHotelId(), dto.getRoomDetailsId());
+                validateDateRules(room, startDate, endDate);
+                return room;
+            });
+            // No room stripe is held while the nights are taken. Like every other booking, bookings of the type serialize on the
+            // room type counters, taken in (hotel, room details, night) order, and the picked room is then guarded by its room nights
+            ReservationDto created = roomLocks.inTransaction(() -> {
+                roomTypeInventory.take(anyRoom, startDate, endDate);
+                Long roomId = roomService.findAvailableRoomIdOfType(dto.getHotelId(), dto.getRoomDetailsId(), startDate, endDate)
+                    .orElseThrow(() -> new InvalidReservationException("No room of this type is free for the whole stay, please try another dates"));
+                createDto.setRoomId(roomId);
+                Room room = roomService.findById(roomId);
+                roomService.bumpOnCommit(room);
+                return new ReservationDto(saveReservation(newReservation(createDto, room)));
+            });
+            readYourWrites.recordWrite(dto.getGuestEmail());
+            return created;
+        });
+    }
+
+    private ReservationDto createReservationOnce(ReservationCreateDto dto, String idempotencyKey, String fingerprint) {
+        ReservationDto created = roomLocks.inTransaction(() -> {
+            validateToCreateReservation(dto);
+            ReservationDto reservation = new ReservationDto(createReservation(dto));
+            if(idempotencyKey != null){
+                idempotencyStore.save(idempotencyKey, fingerprint, reservation);
+            }
+            return reservation;
+        }, dto.getRoomId());
+        readYourWrites.recordWrite(dto.getGuestEmail());
+        return created;
     }
 
     private void validateToCreateReservation(ReservationCreateDto dto) {
@@ -65,6 +267,8 @@ public class ReservationService {
                 LocalDate endDate = LocalDate.parse(dto.getEndDate());
                 // Check if dates are valid
                 validateDateRules(room, startDate, endDate);
+                // Tell the other instances to read the nights of the room again
+                roomService.bumpOnCommit(room);
                 // Check if room is available
                 validateRoomAvailabilityToCreate(dto, startDate, endDate);
             }else{
@@ -92,7 +296,7 @@ public class ReservationService {
     }
 
     private void validateRoomAvailabilityToCreate(ReservationCreateDto dto, LocalDate startDate, LocalDate endDate) {
-        if(reservationRepo.findTotalReservationsByRoomAndDate(dto.getRoomId(), startDate, endDate) > 0){
+        if(reservationRepo.existsOverlappingReservation(dto.getRoomId(), startDate, endDate)){
             throw new InvalidReservationException("This room is already reserved for these dates, please try another dates");
         }
     }
@@ -105,39 +309,292 @@ public class ReservationService {
     }
 
     public Reservation createReservation(ReservationCreateDto dto) {
+        return createReservation(dto, null);
+    }
+
+    private Reservation createReservation(ReservationCreateDto dto, LocalDateTime heldUntil) {
+        Reservation reservation = newReservation(dto, roomService.findById(dto.getRoomId()));
+        if(heldUntil != null){
+            reservation.setStatus(StatusEnum.HELD.toString());
+            reservation.setHeldUntil(heldUntil);
+        }
+        roomTypeInventory.take(reservation.getRoom(), reservation.getStartDate(), reservation.getEndDate());
+        return saveReservation(reservation);
+    }
+
+    private Reservation saveReservation(Reservation reservation) {
+        Reservation saved = reservationRepo.save(reservation);
+        roomNightService.addNights(saved);
+        roomNightService.flushNights();
+        outbox.append(saved, EventTypeEnum.CREATED);
+        occupancyIndex.reserve(reservation.getRoom().getId(), reservation.getStartDate(), reservation.getEndDate());
+        return saved;
+    }
+
+    private Reservation newReservation(ReservationCreateDto dto, Room room) {
         Reservation reservation = new Reservation();
         reservation.setGuestEmail(dto.getGuestEmail());
         reservation.setStartDate(LocalDate.parse(dto.getStartDate()));
         reservation.setEndDate(LocalDate.parse(dto.getEndDate()));
-        reservation.setRoom(roomService.findById(dto.getRoomId()));
+        reservation.setRoom(room);
         reservation.setCreateDate(LocalDate.now());
         reservation.setStatus(StatusEnum.RESERVED.toString());
-        return reservationRepo.save(reservation);
+        return reservation;
+    }
+
+    @Timed(value = "booking.service", histogram = true)
+    public List<ReservationBatchResultDto> validateAndCreateReservations(List<ReservationCreateDto> dtos) {
+        List<ReservationBatchResultDto> results = shardRouter.isSharded() ? createShardedReservations(dtos) : createReservations(dtos);
+        results.stream().filter(result -> result.getReservation() != null)
+            .forEach(result -> readYourWrites.recordWrite(result.getReservation().getGuestEmail()));
+        return results;
+    }
+
+    private List<ReservationBatchResultDto> createReservations(List<ReservationCreateDto> dtos) {
+        Long[] roomIds = dtos.stream().map(ReservationCreateDto::getRoomId).filter(Objects::nonNull).distinct().toArray(Long[]::new);
+        return roomLocks.inTransaction(() -> createReservations(dtos, roomIds), roomIds);
     }
 
+    /**
+     * Books the reservations of each shard in a transaction of that shard, one shard after the other,
+     * the results keeping the index of their reservation in the whole batch.
+     */
+    private List<ReservationBatchResultDto> createShardedReservations(List<ReservationCreateDto> dtos) {
+        Map<Integer, List<Integer>> indexesByShard = new HashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            indexesByShard.computeIfAbsent(shardRouter.shardOfRoom(dtos.get(i).getRoomId()), shard -> new ArrayList<>()).add(i);
+        }
+        ReservationBatchResultDto[] results = new ReservationBatchResultDto[dtos.size()];
+        indexesByShard.forEach((shard, indexes) -> {
+            List<ReservationCreateDto> shardDtos = indexes.stream().map(dtos::get).collect(Collectors.toList());
+            for (ReservationBatchResultDto result : shardRouter.onShard(shard, () -> createReservations(shardDtos))) {
+                result.setIndex(indexes.get(result.getIndex()));
+                results[result.getIndex()] = result;
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validates every reservation of the batch against its room rules, the existing reservations and the
+     * previous reservations of the same batch, then inserts the valid ones in JDBC batches.
+     */
+    private List<ReservationBatchResultDto> createReservations(List<ReservationCreateDto> dtos, Long[] roomIds) {
+        Map<Long, Room> rooms = roomService.findAllById(Arrays.asList(roomIds));
+        Map<Long, RoomOccupancy> occupancies = loadOccupancies(rooms);
+        LockedRoomTypeNights typeNights = roomTypeInventory.lock(rooms.values());
+        Reservation[] created = new Reservation[dtos.size()];
+        String[] errors = new String[dtos.size()];
+        List<Reservation> accepted = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            try {
+                Reservation reservation = validateBatchReservation(dtos.get(i), rooms, occupancies);
+                typeNights.take(reservation.getRoom(), reservation.getStartDate(), reservation.getEndDate());
+                created[i] = reservation;
+                accepted.add(reservation);
+            } catch (InvalidReservationException | NotFoundException e) {
+                bookingMetrics.rejected(e);
+                errors[i] = e.getMessage();
+            }
+        }
+        // Tell the other instances to read the nights of each booked room again
+        accepted.stream().map(Reservation::getRoom).forEach(roomService::bumpOnCommit);
+        reservationRepo.saveAll(accepted);
+        accepted.forEach(roomNightService::addNights);
+        roomNightService.flushNights();
+        accepted.forEach(reservation -> outbox.append(reservation, EventTypeEnum.CREATED));
+        List<ReservationBatchResultDto> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            if(created[i] != null){
+                occupancyIndex.reserve(created[i].getRoom().getId(), created[i].getStartDate(), created[i].getEndDate());
+                results.add(new ReservationBatchResultDto(i, new ReservationDto(created[i]), null));
+            }else{
+                results.add(new ReservationBatchResultDto(i, null, errors[i]));
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, RoomOccupancy> loadOccupancies(Map<Long, Room> rooms) {
+        LocalDate today = LocalDate.now();
+        Map<Long, RoomOccupancy> occupancies = new HashMap<>();
+        for (Long roomId : rooms.keySet()) {
+            occupancies.put(roomId, new RoomOccupancy(today));
+        }
+        if(!rooms.isEmpty()){
+            for (RoomNightId night : roomNightService.findNights(rooms.keySet(), today)) {
+                occupancies.get(night.getRoomId()).reserveNight(night.getNight());
+            }
+        }
+        return occupancies;
+    }
+
+    private Reservation validateBatchReservation(ReservationCreateDto dto, Map<Long, Room> rooms, Map<Long, RoomOccupancy> occupancies) {
+        if(dto.getRoomId() == null){
+            throw new InvalidReservationException("The reservation room is required");
+        }
+        Room room = rooms.get(dto.getRoomId());
+        if(room == null){
+            throw new NotFoundException("Room not found for id: " + dto.getRoomId());
+        }
+        if(!hasValidDatesEntries(new ReservationDto(dto))){
+            throw new InvalidReservationException("Invalid dates informed");
+        }
+        LocalDate startDate;
+        LocalDate endDate;
+        try{
+            startDate = LocalDate.parse(dto.getStartDate());
+            endDate = LocalDate.parse(dto.getEndDate());
+        }catch(DateTimeParseException e){
+            throw new InvalidReservationException("Invalid dates informed");
+        }
+        validateDateRules(room, startDate, endDate);
+        RoomOccupancy occupancy = occupancies.get(room.getId());
+        if(!occupancy.isFree(startDate, endDate)){
+            throw new InvalidReservationException("This room is already reserved for these dates, please try another dates");
+        }
+        occupancy.reserve(startDate, endDate);
+        return newReservation(dto, room);
+    }
+
+    @Timed(value = "booking.service", histogram = true)
+    @Transactional(readOnly = true)
     public ReservationPageResponseDto getUserReservationsPageList(ReservationPageRequestDto dto) {
-        Specification<Reservation> filters = Specification.where(
-            ReservationSpecifications.equalToGuestEmail(dto.getGuestEmail()))
-            .and(ReservationSpecifications.startDateBtw(dto.getStartDate(), dto.getEndDate())
-            .and(ReservationSpecifications.equalToRoom(dto.getRoomId()))
-        );
-        Page<Reservation> page = reservationRepo.findAll(filters,dto.toPageRequest());
-        return new ReservationPageResponseDto(page.getTotalElements(), page.getSize(), page.getTotalPages(), toDtoList(page.getContent()));
+        // A guest listing right after booking reads from the primary, the replica may not have the booking yet
+        readYourWrites.routeGuest(dto.getGuestEmail());
+        boolean withArchive = needsArchive(dto);
+        // A guest books rooms of any hotel, only a room filter pins the list to a single shard
+        if((!shardRouter.isSharded() || dto.getRoomId() != null) && !withArchive){
+            return shardRouter.onRoom(dto.getRoomId(), () -> listUserReservations(ReservationFilter.of(dto, !guestHashBackfill.isComplete()), dto));
+        }
+        return dto.isKeyset() ? gatherUserReservationsSlice(dto, withArchive) : gatherUserReservationsPage(dto, withArchive);
+    }
+
+    /**
+     * The archive is only read when the requested dates reach past the retention and the guest has archived reservations.
+     */
+    private boolean needsArchive(ReservationPageRequestDto dto) {
+        if(dto.getGuestEmail() == null || !reservationArchiver.reaches(dto.getStartDate())){
+            return false;
+        }
+        Supplier<Boolean> archived = () -> archiveRepo.existsByGuestEmail(dto.getGuestEmail(), !guestHashBackfill.isComplete());
+        if(!shardRouter.isSharded() || dto.getRoomId() != null){
+            return shardRouter.onRoom(dto.getRoomId(), archived);
+        }
+        return shardRouter.onEachShard(archived).contains(Boolean.TRUE);
     }
 
-    private List<ReservationDto> toDtoList(List<Reservation> reservations) {
-        List<ReservationDto> dtos = new ArrayList<>();
-        for (Reservation reservation : reservations) {
-            ReservationDto dto = new ReservationDto(reservation);
-            dtos.add(dto);
+    private ReservationPageResponseDto listUserReservations(ReservationFilter filter, ReservationPageRequestDto dto) {
+        if(dto.isKeyset()){
+            return getUserReservationsSlice(filter, dto);
         }
-        return dtos;
+        Page<ReservationDto> page = reservationRepo.findDtoPage(filter, dto.toPageRequest());
+        return new ReservationPageResponseDto(page.getTotalElements(), page.getSize(), page.getTotalPages(), page.getContent(), null);
     }
 
+    private ReservationPageResponseDto getUserReservationsSlice(ReservationFilter filter, ReservationPageRequestDto dto) {
+        ReservationCursor cursor = ReservationCursor.decode(dto.getContinuationToken());
+        Slice<ReservationDto> slice = reservationRepo.findDtoSlice(filter.after(cursor), dto.getSliceSize());
+        Long total = dto.isIncludeTotal() ? reservationRepo.countMatching(filter) : null;
+        String continuationToken = null;
+        if(slice.hasNext()){
+            List<ReservationDto> content = slice.getContent();
+            continuationToken = new ReservationCursor(content.get(content.size() - 1)).encode();
+        }
+        return new ReservationPageResponseDto(total, slice.getSize(), null, slice.getContent(), continuationToken);
+    }
+
+    /**
+     * Runs the query on the reservations, and on the archive when asked, of every shard the list spans.
+     */
+    private <T> List<T> gather(ReservationPageRequestDto dto, boolean withArchive, Supplier<T> live, Supplier<T> archived) {
+        Supplier<List<T>> sources = () -> withArchive ? Arrays.asList(live.get(), archived.get()) : Collections.singletonList(live.get());
+        List<List<T>> results = !shardRouter.isSharded() || dto.getRoomId() != null
+            ? Collections.singletonList(shardRouter.onRoom(dto.getRoomId(), sources))
+            : shardRouter.onEachShard(sources);
+        return results.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the first (page + 1) * size reservations of every source and merges them, so deep offset pages
+     * cost every source more and more rows. Keyset paging reads a single slice per source instead.
+     */
+    private ReservationPageResponseDto gatherUserReservationsPage(ReservationPageRequestDto dto, boolean withArchive) {
+        ReservationFilter filter = ReservationFilter.of(dto, !guestHashBackfill.isComplete());
+        PageRequest pageRequest = dto.toPageRequest();
+        PageRequest sourceRequest = PageRequest.of(0, (int) pageRequest.getOffset() + pageRequest.getPageSize(), Sort.by("startDate", "id"));
+        List<Page<ReservationDto>> pages = gather(dto, withArchive,
+            () -> reservationRepo.findDtoPage(filter, sourceRequest), () -> archiveRepo.findDtoPage(filter, sourceRequest));
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<ReservationDto> content = pages.stream().flatMap(page -> page.getContent().stream())
+            .sorted(KEYSET_ORDER)
+            .skip(pageRequest.getOffset())
+            .limit(pageRequest.getPageSize())
+            .collect(Collectors.toList());
+        int totalPages = (int) ((total + pageRequest.getPageSize() - 1) / pageRequest.getPageSize());
+        return new ReservationPageResponseDto(total, pageRequest.getPageSize(), totalPages, content, null);
+    }
+
+    private ReservationPageResponseDto gatherUserReservationsSlice(ReservationPageRequestDto dto, boolean withArchive) {
+        ReservationFilter filter = ReservationFilter.of(dto, !guestHashBackfill.isComplete());
+        ReservationFilter sliceFilter = filter.after(ReservationCursor.decode(dto.getContinuationToken()));
+        int size = dto.getSliceSize();
+        List<Slice<ReservationDto>> slices = gather(dto, withArchive,
+            () -> reservationRepo.findDtoSlice(sliceFilter, size), () -> archiveRepo.findDtoSlice(sliceFilter, size));
+        List<ReservationDto> merged = slices.stream().flatMap(slice -> slice.getContent().stream())
+            .sorted(KEYSET_ORDER)
+            .collect(Collectors.toList());
+        boolean hasNext = merged.size() > size || slices.stream().anyMatch(Slice::hasNext);
+        List<ReservationDto> content = merged.size() > size ? merged.subList(0, size) : merged;
+        Long total = null;
+        if(dto.isIncludeTotal()){
+            total = gather(dto, withArchive, () -> reservationRepo.countMatching(filter), () -> archiveRepo.countMatching(filter)).stream().mapToLong(Long::longValue).sum();
+        }
+        String continuationToken = hasNext ? new ReservationCursor(content.get(content.size() - 1)).encode() : null;
+        return new ReservationPageResponseDto(total, size, null, new ArrayList<>(content), continuationToken);
+    }
+
+    @Timed(value = "booking.service", histogram = true)
     public ReservationDto validateAndUpdateReservation(Long reservationId, ReservationUpdateDto dto) {
-        Reservation reservation = findById(reservationId);
-        validateToUpdateReservation(reservation, dto); 
-        return new ReservationDto(updateReservation(reservation, dto));
+        if(dto.getRoomId() != null && shardRouter.shardOfRoom(dto.getRoomId()) != shardRouter.shardOfReservation(reservationId)){
+            throw new InvalidReservationException("A reservation can't be moved to a room of a hotel on another shard");
+        }
+        return shardRouter.onReservation(reservationId, () -> updateReservationOnShard(reservationId, dto));
+    }
+
+    private ReservationDto updateReservationOnShard(Long reservationId, ReservationUpdateDto dto) {
+        ReservationDto updated = inRoomLocks(reservationId, dto.getRoomId(), reservation -> {
+            validateToUpdateReservation(reservation, dto);
+            return new ReservationDto(updateReservation(reservation, dto));
+        });
+        readYourWrites.recordWrite(dto.getGuestEmail());
+        return updated;
+    }
+
+    /**
+     * Runs the work on the reservation in a transaction holding the locks of its room and of the other room given.
+     * The room is read before the locks are taken, so once they are held the reservation is read again and if
+     * it was moved to another room meanwhile, the locks of that room are taken instead.
+     */
+    private ReservationDto inRoomLocks(Long reservationId, Long otherRoomId, Function<Reservation, ReservationDto> work) {
+        Long roomId = reservationRepo.findRoomIdById(reservationId)
+            .orElseThrow(() -> new NotFoundException("Reservation not found for id: " + reservationId));
+        while(true){
+            Long lockedRoomId = roomId;
+            Long[] movedTo = new Long[1];
+            ReservationDto result = roomLocks.inTransaction(() -> {
+                Reservation reservation = findById(reservationId);
+                if(!reservation.getRoom().getId().equals(lockedRoomId)){
+                    movedTo[0] = reservation.getRoom().getId();
+                    return null;
+                }
+                return work.apply(reservation);
+            }, lockedRoomId, otherRoomId);
+            if(movedTo[0] == null){
+                return result;
+            }
+            roomId = movedTo[0];
+        }
     }
 
     private void validateToUpdateReservation(Reservation reservation, ReservationUpdateDto dto) {
@@ -149,6 +606,8 @@ public class ReservationService {
         validateReservationGuestEmail(reservation, dto.getGuestEmail());
         // Check if it's changing room
         if(isChangingRoom){
+            // The nights left on the previous room change its occupancy too
+            roomService.bumpOnCommit(room);
             room = roomService.findById(dto.getRoomId());
         }
         // Check if it's changing dates
@@ -160,12 +619,17 @@ public class ReservationService {
         }
         // Check if dates are valid
         validateDateRules(room, startDate, endDate);
+        // Tell the other instances to read the nights of the room again
+        roomService.bumpOnCommit(room);
         // Check if room is available
         validateRoomAvailabilityToUpdate(room, reservation, startDate, endDate);
         // Check if status is valid
-        validateReservationStatus(dto.getStatus());
+        validateReservationStatus(reservation, dto.getStatus());
     }
 
+    /**
+     * Guest emails are matched exactly and case-sensitively, as in the guest reservation list.
+     */
     private void validateReservationGuestEmail(Reservation reservation, String dtoGuest) {
         if(!reservation.getGuestEmail().equals(dtoGuest)){
             throw new InvalidReservationException("You can't update a reservation that is not yours");
@@ -173,22 +637,38 @@ public class ReservationService {
     }
 
     private void validateRoomAvailabilityToUpdate(Room room, Reservation reservation, LocalDate startDate, LocalDate endDate) {
-        if(reservationRepo.findTotalReservationsByRoomAndDateExceptCurrentReservation(room.getId(), startDate, endDate, reservation.getId()) > 0){
+        if(reservationRepo.existsOverlappingReservationExcept(room.getId(), startDate, endDate, reservation.getId())){
             throw new InvalidReservationException("This room is already reserved for these dates, please try another dates");
         }
     }
 
-    private void validateReservationStatus(String status) {
+    private void validateReservationStatus(Reservation reservation, String status) {
         if(status != null){
             try{
                 StatusEnum.valueOf(status);
             }catch(IllegalArgumentException e){
                 throw new InvalidReservationException("Trying to update to an invalid reservation status");
             }
+            // Holds are only made by holdReservation and released by their expiry
+            if(!status.equals(reservation.getStatus()) && (StatusEnum.HELD.toString().equals(status) || StatusEnum.EXPIRED.toString().equals(status))){
+                throw new InvalidReservationException("A reservation can't be updated to the " + status + " status");
+            }
         }
+        if(isHoldExpired(reservation) || StatusEnum.EXPIRED.toString().equals(reservation.getStatus())){
+            throw new InvalidReservationException("The hold of this reservation has expired");
+        }
+    }
+
+    private boolean isHoldExpired(Reservation reservation) {
+        return reservation.getHeldUntil() != null && !reservation.getHeldUntil().isAfter(LocalDateTime.now());
     }
 
     private Reservation updateReservation(Reservation reservation, ReservationUpdateDto dto) {
+        Room previousRoom = reservation.getRoom();
+        Long previousRoomId = previousRoom.getId();
+        LocalDate previousStartDate = reservation.getStartDate();
+        LocalDate previousEndDate = reservation.getEndDate();
+        boolean wasReserved = StatusEnum.takesNights(reservation.getStatus());
         if(dto.getStartDate() != null){
             reservation.setStartDate(LocalDate.parse(dto.getStartDate()));
         }
@@ -201,57 +681,136 @@ public class ReservationService {
         if(dto.getStatus() != null){
             reservation.setStatus(dto.getStatus());
         }
-        return reservationRepo.save(reservation);
+        if(!StatusEnum.HELD.toString().equals(reservation.getStatus())){
+            reservation.setHeldUntil(null);
+        }
+        Reservation saved = reservationRepo.save(reservation);
+        if(wasReserved && StatusEnum.takesNights(reservation.getStatus())){
+            roomTypeInventory.lock(previousRoom, previousStartDate, previousEndDate, reservation.getRoom(), reservation.getStartDate(), reservation.getEndDate());
+        }
+        if(wasReserved){
+            roomNightService.removeNights(reservation.getId());
+            roomTypeInventory.release(previousRoom, previousStartDate, previousEndDate);
+            occupancyIndex.release(previousRoomId, previousStartDate, previousEndDate);
+        }
+        if(StatusEnum.takesNights(reservation.getStatus())){
+            roomTypeInventory.take(reservation.getRoom(), reservation.getStartDate(), reservation.getEndDate());
+            roomNightService.addNights(saved);
+            roomNightService.flushNights();
+            occupancyIndex.reserve(reservation.getRoom().getId(), reservation.getStartDate(), reservation.getEndDate());
+        }
+        outbox.append(saved, EventTypeEnum.UPDATED);
+        return saved;
     }
 
+    @Timed(value = "booking.service", histogram = true)
     public List<String> getRoomAvailableDates(Long id) {
-        Room room = roomService.findById(id);
-        List<Reservation> roomReservations = findAllReservationsByRoom(id);
-        List<String> availableDates = new ArrayList<>();
-        for(int i = 0; i < room.getRoomDetails().getMaxReserveAdvanceDays(); i++){
-            LocalDate date = LocalDate.now().plusDays(i);
-            if(isReservationDateAvailable(roomReservations, date)){
-                availableDates.add(date.format(DateTimeFormatter.ISO_LOCAL_DATE));
-            }
-        }
-        return availableDates;
+        return availabilitySnapshotOf(id).getDates();
     }
 
-    private boolean isReservationDateAvailable(List<Reservation> roomReservations, LocalDate date) {
-        boolean available = true;
-        for (Reservation reservation : roomReservations) {
-            if(date.isAfter(reservation.getStartDate()) && date.isBefore(reservation.getEndDate()) || 
-                (date.isEqual(reservation.getStartDate()) || date.isEqual(reservation.getEndDate()))){
-                available = false;
-                break;
-            }
+    /**
+     * Returns the available dates of the room ready to be written, computing them again only when
+     * a reservation of the room changed or the day rolled over since they were last asked for.
+     * A current snapshot is returned without any transaction.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public AvailabilitySnapshot getRoomAvailabilitySnapshot(Long id) {
+        return availabilitySnapshotOf(id);
+    }
+
+    private AvailabilitySnapshot availabilitySnapshotOf(Long id) {
+        AvailabilitySnapshot snapshot = availabilitySnapshots.current(id);
+        if(snapshot != null){
+            return snapshot;
         }
-        return available;
+        return shardRouter.onRoom(id, () -> {
+            // Only the room rules are read in this transaction, the occupancy index loading the nights in its own
+            Integer days = readOnlyTransaction.execute(status -> roomService.findById(id).getRoomDetails().getMaxReserveAdvanceDays());
+            return availabilitySnapshots.take(id, days);
+        });
     }
 
+    /**
+     * Answers from the occupancy index without a transaction, only dates before its load date reading the database.
+     */
+    @Timed(value = "booking.service", histogram = true)
     public Boolean isRoomAvailable(Long id, RoomCheckDto check) {
-        boolean available = true;
+        return shardRouter.onRoom(id, () -> checkRoomAvailable(id, check));
+    }
+
+    private Boolean checkRoomAvailable(Long id, RoomCheckDto check) {
         LocalDate startDate = LocalDate.parse(check.getStartDate());
         LocalDate endDate = LocalDate.parse(check.getEndDate());
-
-        List<Reservation> roomReservations = findAllReservationsByRoom(id);
-        for (Reservation reservation : roomReservations) {
-            if(startDate.isAfter(reservation.getStartDate()) && startDate.isBefore(reservation.getEndDate()) || 
-                endDate.isAfter(reservation.getStartDate()) && endDate.isBefore(reservation.getEndDate()) ||
-                (startDate.isEqual(reservation.getStartDate()) || endDate.isEqual(reservation.getEndDate()))){
-                available = false;
-                break;
-            }
+        // The occupancy index only holds the nights from its load date, older ones are read from the database
+        if(occupancyIndex.covers(id, startDate)){
+            return occupancyIndex.isFree(id, startDate, endDate);
         }
-        return available;
+        return !reservationRepo.existsOverlappingReservation(id, startDate, endDate);
     }
 
+    @Timed(value = "booking.service", histogram = true)
     public ReservationDto cancelReservation(Long reservationId, ReservationDeleteDto dto) {
-            Reservation reservation = findById(reservationId);
+        return shardRouter.onReservation(reservationId, () -> cancelReservationOnShard(reservationId, dto));
+    }
+
+    private ReservationDto cancelReservationOnShard(Long reservationId, ReservationDeleteDto dto) {
+        ReservationDto canceled = inRoomLocks(reservationId, null, reservation -> {
             validateReservationGuestEmail(reservation, dto.getGuestEmail());
+            boolean wasReserved = StatusEnum.takesNights(reservation.getStatus());
             reservation.setStatus(StatusEnum.CANCELED.toString());
-            return new ReservationDto(reservationRepo.save(reservation));
+            reservation.setHeldUntil(null);
+            Reservation saved = reservationRepo.save(reservation);
+            if(wasReserved){
+                // The version tells the occupancy index of the other instances that the nights were released
+                roomService.bumpOnCommit(reservation.getRoom());
+                roomNightService.removeNights(reservation.getId());
+                roomTypeInventory.release(reservation.getRoom(), reservation.getStartDate(), reservation.getEndDate());
+                occupancyIndex.release(reservation.getRoom().getId(), reservation.getStartDate(), reservation.getEndDate());
+            }
+            outbox.append(saved, EventTypeEnum.CANCELED);
+            return new ReservationDto(saved);
+        });
+        readYourWrites.recordWrite(dto.getGuestEmail());
+        return canceled;
+    }
+
+    /**
+     * Releases the nights of the given holds that are still held and ended, one transaction per shard.
+     * Returns how many holds expired, the others having been confirmed, canceled or already released.
+     */
+    @Timed(value = "booking.service", histogram = true)
+    public int expireHolds(Collection<Long> reservationIds) {
+        Map<Integer, List<Long>> idsByShard = reservationIds.stream().collect(Collectors.groupingBy(shardRouter::shardOfReservation));
+        int expired = 0;
+        for (Map.Entry<Integer, List<Long>> shardIds : idsByShard.entrySet()) {
+            expired += shardRouter.onShard(shardIds.getKey(), () -> expireShardHolds(shardIds.getValue()));
+        }
+        return expired;
     }
 
+    private int expireShardHolds(List<Long> reservationIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Long[] roomIds = reservationRepo.findExpiredHoldRoomIds(reservationIds, now).toArray(new Long[0]);
+        if(roomIds.length == 0){
+            return 0;
+        }
+        // Locked like any booking of these rooms, so a confirmation running now either wins or sees the hold expired
+        return roomLocks.inTransaction(() -> {
+            List<Reservation> holds = reservationRepo.findExpiredHolds(reservationIds, now);
+            if(holds.isEmpty()){
+                return 0;
+            }
+            holds.stream().map(Reservation::getRoom).distinct().forEach(roomService::bumpOnCommit);
+            roomNightService.removeNights(holds.stream().map(Reservation::getId).collect(Collectors.toList()));
+            for (Reservation hold : holds) {
+                hold.setStatus(StatusEnum.EXPIRED.toString());
+                hold.setHeldUntil(null);
+                outbox.append(hold, EventTypeEnum.EXPIRED);
+                roomTypeInventory.release(hold.getRoom(), hold.getStartDate(), hold.getEndDate());
+                occupancyIndex.release(hold.getRoom().getId(), hold.getStartDate(), hold.getEndDate());
+            }
+            return holds.size();
+        }, roomIds);
+    }
 
 }
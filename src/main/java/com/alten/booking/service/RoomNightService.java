@@ -0,0 +1,189 @@
+package com.alten.booking.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.RoomNight;
+import com.alten.booking.domain.RoomNightId;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.locking.JobLocks;
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.repository.RoomNightRepository;
+import com.alten.booking.sharding.ShardRouter;
+
+/**
+ * Keeps one room_night row per night taken by a reserved reservation, written in the
+ * same transaction as the reservation.
+ */
+@Service
+public class RoomNightService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoomNightService.class);
+
+    static final String BACKFILL_JOB = "room-night-backfill";
+
+    @Autowired
+    private RoomNightRepository roomNightRepo;
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JobLocks jobLocks;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${booking.nights.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    @Value("${booking.nights.backfill-lease-seconds:300}")
+    private long backfillLeaseSeconds;
+
+    private volatile boolean backfilled;
+
+    /**
+     * Queues the nights of the reservation for insert, written by the next flush or at commit.
+     */
+    public void addNights(Reservation reservation) {
+        Long roomId = reservation.getRoom().getId();
+        for (LocalDate night = reservation.getStartDate(); night.isBefore(reservation.getEndDate()); night = night.plusDays(1)) {
+            entityManager.persist(new RoomNight(new RoomNightId(roomId, night), reservation.getId()));
+        }
+    }
+
+    /**
+     * Writes the queued nights, a night already taken by another reservation failing the booking.
+     */
+    public void flushNights() {
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            if(e.getCause() instanceof ConstraintViolationException) {
+                throw new InvalidReservationException("This room is already reserved for these dates, please try another dates");
+            }
+            throw e;
+        }
+    }
+
+    public List<RoomNightId> findNights(Collection<Long> roomIds, LocalDate from) {
+        return roomNightRepo.findNightsByRoomsFrom(roomIds, from);
+    }
+
+    public void removeNights(Long reservationId) {
+        roomNightRepo.deleteByReservationId(reservationId);
+    }
+
+    public void removeNights(Collection<Long> reservationIds) {
+        roomNightRepo.deleteByReservationIds(reservationIds);
+    }
+
+    /**
+     * Tells if the nights of every upcoming reservation of every shard are known to be written.
+     */
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.nights.backfill-delay-ms:60000}", initialDelayString = "${booking.nights.backfill-initial-delay-ms:0}")
+    public void backfillOnSchedule() {
+        if(backfilled){
+            return;
+        }
+        try {
+            backfillNights();
+        } catch (RuntimeException e) {
+            // The next run takes the backfill over from where it stopped
+            LOGGER.warn("Room nights backfill failed", e);
+        }
+    }
+
+    /**
+     * Adds the nights of the upcoming reservations created before the room_night table existed, a single instance
+     * backfilling each shard in batches of booking.nights.backfill-batch-size, returning true once every shard is done.
+     */
+    public boolean backfillNights() {
+        backfilled = !shardRouter.onEachShard(this::backfillShard).contains(Boolean.FALSE);
+        return backfilled;
+    }
+
+    private boolean backfillShard() {
+        if(jobLocks.isCompleted(BACKFILL_JOB)){
+            return true;
+        }
+        Duration lease = Duration.ofSeconds(backfillLeaseSeconds);
+        if(!jobLocks.tryAcquire(BACKFILL_JOB, lease)){
+            return false;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            Long lastId = Long.MIN_VALUE;
+            do {
+                Long afterId = lastId;
+                lastId = transactionTemplate.execute(status -> backfillBatch(today, afterId));
+            } while (lastId != null && jobLocks.tryAcquire(BACKFILL_JOB, lease));
+            if(lastId != null){
+                // The lease was lost, the instance holding it now goes on
+                return false;
+            }
+            jobLocks.complete(BACKFILL_JOB);
+            return true;
+        } finally {
+            jobLocks.release(BACKFILL_JOB);
+        }
+    }
+
+    /**
+     * Adds the nights of the next batch of reservations after the given id, returning the last id of a full batch or null when done.
+     */
+    private Long backfillBatch(LocalDate today, Long afterId) {
+        List<Reservation> reservations = reservationRepo.findReservedWithoutNights(today, afterId, PageRequest.of(0, backfillBatchSize));
+        if(reservations.isEmpty()){
+            return null;
+        }
+        // Nights already written by other reservations are skipped instead of failing the batch
+        Set<RoomNightId> taken = new HashSet<>(roomNightRepo.findNightsByRoomsFrom(
+            reservations.stream().map(reservation -> reservation.getRoom().getId()).collect(Collectors.toSet()), today));
+        for (Reservation reservation : reservations) {
+            // Only the upcoming nights are read for the other reservations, so only those are written
+            LocalDate from = reservation.getStartDate().isBefore(today) ? today : reservation.getStartDate();
+            for (LocalDate night = from; night.isBefore(reservation.getEndDate()); night = night.plusDays(1)) {
+                RoomNightId id = new RoomNightId(reservation.getRoom().getId(), night);
+                if(taken.add(id)) {
+                    entityManager.persist(new RoomNight(id, reservation.getId()));
+                } else {
+                    LOGGER.warn("Reservation {} overlaps another reservation of room {} on {}", reservation.getId(), id.getRoomId(), night);
+                }
+            }
+        }
+        LOGGER.info("Added the room nights of {} reservations", reservations.size());
+        return reservations.size() < backfillBatchSize ? null : reservations.get(reservations.size() - 1).getId();
+    }
+
+}
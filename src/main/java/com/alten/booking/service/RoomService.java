@@ -1,13 +1,32 @@
 package com.alten.booking.service;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.alten.booking.domain.Hotel;
 import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomDetails;
 import com.alten.booking.exceptions.NotFoundException;
 import com.alten.booking.repository.RoomRepository;
+import com.alten.booking.repository.RoomVersionRepository;
 
 @Service
 public class RoomService {
@@ -15,9 +34,101 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepo;
 
+    @Autowired
+    private RoomVersionRepository roomVersionRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Key of the rooms to bump on commit among the resources of the current transaction.
+     */
+    private final Object bumpedRooms = new Object();
+
     public Room findById(Long id) {
         Optional<Room> result = roomRepo.findById(id);
 		return result.orElseThrow(() -> new NotFoundException("Room not found for id: " + id));
     }
+
+    public Map<Long, Room> findAllById(Collection<Long> ids) {
+        return roomRepo.findAllById(ids).stream().collect(Collectors.toMap(Room::getId, Function.identity()));
+    }
+
+    /**
+     * Returns a room of the room type, its room details holding the rules of the whole type.
+     */
+    public Room findAnyOfType(Long hotelId, Long roomDetailsId) {
+        Optional<Room> result = roomRepo.findFirstByHotelIdAndRoomDetailsId(hotelId, roomDetailsId);
+        return result.orElseThrow(() -> new NotFoundException("Room type not found for hotel id: " + hotelId + " and room details id: " + roomDetailsId));
+    }
+
+    /**
+     * Returns the first room of the room type free for every night of [startDate, endDate).
+     */
+    public Optional<Long> findAvailableRoomIdOfType(Long hotelId, Long roomDetailsId, LocalDate startDate, LocalDate endDate) {
+        return roomRepo.findAvailableRoomIdsOfType(hotelId, roomDetailsId, startDate, endDate, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    /**
+     * Drops the room from the second-level cache, to be called after changing it outside this application.
+     */
+    public void evict(Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Room.class, id);
+    }
+
+    public void evictAll() {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Room.class);
+        cache.evict(RoomDetails.class);
+        cache.evict(Hotel.class);
+    }
+
+    /**
+     * Bumps the room version when the current transaction commits, so the other instances read the nights
+     * of the room again. A concurrent booking of the same nights is rejected by their room night keys.
+     * The rooms of a transaction are bumped once each, in id order and after its other writes, so the room
+     * type counters are always locked before the versions. The version is kept in the room_version table,
+     * leaving the cached room untouched.
+     */
+    public void bumpOnCommit(Room room) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            roomVersionRepo.bump(room.getId());
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> roomIds = (Set<Long>) TransactionSynchronizationManager.getResource(bumpedRooms);
+        if(roomIds == null){
+            Set<Long> bumped = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(bumpedRooms, bumped);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    bumped.forEach(roomVersionRepo::bump);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(bumpedRooms);
+                }
+            });
+            roomIds = bumped;
+        }
+        roomIds.add(room.getId());
+    }
+
+    /**
+     * Bumps the versions of the rooms right away, in id order, failing if a room moved from the given version
+     * since it was read, so a count of their nights made meanwhile is not committed.
+     */
+    public void bumpFrom(Map<Long, Long> versions) {
+        new TreeMap<>(versions).forEach((roomId, version) -> {
+            // A room never bumped has no row yet, and a booking creating it meanwhile fails this insert
+            if(version == 0){
+                roomVersionRepo.create(roomId);
+            }else if(roomVersionRepo.bumpFrom(roomId, version) == 0){
+                throw new OptimisticLockingFailureException("Room " + roomId + " was written meanwhile");
+            }
+        });
+    }
     
 }
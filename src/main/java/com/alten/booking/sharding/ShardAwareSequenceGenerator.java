@@ -0,0 +1,83 @@
+package com.alten.booking.sharding;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Pooled sequence generator keeping a separate pool per shard, each shard having its own copy of the
+ * sequence. Ids generated on a shard are encoded with ShardIds. With the sharded mode off the plain
+ * sequence value is used as before, while in the sharded mode an id generated outside of a shard
+ * is refused, as its shard could not be told from it.
+ */
+public class ShardAwareSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Hibernate setting telling the generator that the sharded mode is on.
+     */
+    public static final String SHARDED = "booking.sharding.enabled";
+
+    private final ConcurrentMap<Integer, SequenceStyleGenerator> shardGenerators = new ConcurrentHashMap<>();
+
+    private Type type;
+    private Properties params;
+    private ServiceRegistry serviceRegistry;
+    private Database database;
+    private SqlStringGenerationContext context;
+    private boolean sharded;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        this.type = type;
+        this.params = (Properties) params.clone();
+        this.serviceRegistry = serviceRegistry;
+        this.sharded = ConfigurationHelper.getBoolean(SHARDED, serviceRegistry.getService(ConfigurationService.class).getSettings(), false);
+        super.configure(type, params, serviceRegistry);
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        this.database = database;
+        super.registerExportables(database);
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        this.context = context;
+        super.initialize(context);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        Integer shard = ShardContext.current();
+        if(shard == null){
+            if(sharded){
+                throw new IllegalStateException("Ids of " + object.getClass().getSimpleName() + " must be generated inside ShardRouter.onShard in the sharded mode");
+            }
+            return super.generate(session, object);
+        }
+        Number localId = (Number) shardGenerators.computeIfAbsent(shard, this::newShardGenerator).generate(session, object);
+        return ShardIds.encode(localId.longValue(), shard);
+    }
+
+    private SequenceStyleGenerator newShardGenerator(Integer shard) {
+        SequenceStyleGenerator generator = new SequenceStyleGenerator();
+        generator.configure(type, (Properties) params.clone(), serviceRegistry);
+        generator.registerExportables(database);
+        generator.initialize(context);
+        return generator;
+    }
+
+}
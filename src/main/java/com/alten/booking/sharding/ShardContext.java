@@ -0,0 +1,26 @@
+package com.alten.booking.sharding;
+
+/**
+ * Shard of the work running on the current thread, read by the routing datasource when a connection
+ * is opened and by the id generator. No shard set means the default shard.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if(shard == null){
+            CURRENT.remove();
+        }else{
+            CURRENT.set(shard);
+        }
+    }
+
+}
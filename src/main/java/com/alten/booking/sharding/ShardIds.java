@@ -0,0 +1,22 @@
+package com.alten.booking.sharding;
+
+/**
+ * Ids generated in the sharded mode carry their shard in their lowest digits, so a reservation is found
+ * from its id alone: id = local sequence value * SLOTS + shard.
+ */
+public final class ShardIds {
+
+    public static final int SLOTS = 1024;
+
+    private ShardIds() {
+    }
+
+    public static long encode(long localId, int shard) {
+        return localId * SLOTS + shard;
+    }
+
+    public static int shardOf(long id) {
+        return (int) Math.floorMod(id, (long) SLOTS);
+    }
+
+}
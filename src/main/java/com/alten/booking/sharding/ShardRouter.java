@@ -0,0 +1,205 @@
+package com.alten.booking.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.alten.booking.metrics.StatementCounter;
+import com.alten.booking.repository.RoomRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Runs the work on the shard owning a hotel, a room or a reservation. A hotel is placed by a jump
+ * consistent hash of its id, its rooms and their reservations living on the same shard.
+ * With the sharded mode off there is a single shard and the work runs as is.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @Autowired
+    private RoomRepository roomRepo;
+
+    private int shardCount;
+
+    private Cache<Long, Integer> roomShards;
+
+    private Cache<Long, Boolean> unknownRooms;
+
+    private ExecutorService scatterExecutor;
+
+    /**
+     * Runs the scatter tasks counting their statements into the counter of the calling thread.
+     */
+    private Executor countingScatterExecutor;
+
+    @PostConstruct
+    public void init() {
+        shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        if(shardCount > ShardIds.SLOTS){
+            throw new IllegalStateException("The sharded mode supports up to " + ShardIds.SLOTS + " shards");
+        }
+        if(isSharded()){
+            roomShards = Caffeine.newBuilder().maximumSize(properties.getMaxTrackedRooms()).build();
+            unknownRooms = Caffeine.newBuilder().maximumSize(properties.getMaxTrackedRooms())
+                .expireAfterWrite(Duration.ofMillis(properties.getUnknownRoomTtlMs())).build();
+            scatterExecutor = Executors.newFixedThreadPool(properties.getScatterPoolSize(), new CustomizableThreadFactory("shard-scatter-"));
+            countingScatterExecutor = task -> scatterExecutor.execute(StatementCounter.propagate(task));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(scatterExecutor != null){
+            scatterExecutor.shutdown();
+        }
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOfHotel(Long hotelId) {
+        return jumpHash(hotelId, shardCount);
+    }
+
+    /**
+     * Finds the shard holding the room, looking it up on every shard the first time. An unknown room
+     * is sent to the default shard, where it fails its lookup as usual, and is not looked up again
+     * for booking.sharding.unknown-room-ttl-ms.
+     */
+    public int shardOfRoom(Long roomId) {
+        if(!isSharded() || roomId == null){
+            return DEFAULT_SHARD;
+        }
+        Integer shard = roomShards.getIfPresent(roomId);
+        if(shard == null){
+            if(unknownRooms.getIfPresent(roomId) != null){
+                return DEFAULT_SHARD;
+            }
+            List<Boolean> found = onEachShard(() -> roomRepo.existsById(roomId));
+            shard = found.indexOf(Boolean.TRUE);
+            if(shard < 0){
+                unknownRooms.put(roomId, Boolean.TRUE);
+                return DEFAULT_SHARD;
+            }
+            roomShards.put(roomId, shard);
+        }
+        return shard;
+    }
+
+    public int shardOfReservation(Long reservationId) {
+        return isSharded() && reservationId != null ? ShardIds.shardOf(reservationId) : DEFAULT_SHARD;
+    }
+
+    public <T> T onHotel(Long hotelId, Supplier<T> work) {
+        return onShard(shardOfHotel(hotelId), work);
+    }
+
+    public <T> T onRoom(Long roomId, Supplier<T> work) {
+        return onShard(shardOfRoom(roomId), work);
+    }
+
+    public <T> T onReservation(Long reservationId, Supplier<T> work) {
+        return onShard(shardOfReservation(reservationId), work);
+    }
+
+    /**
+     * Runs the work with its connections opened on the shard. A transaction keeps the connection of its
+     * first query, so the shard must be set before it and can't change until the transaction ends.
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if(!isSharded()){
+            return work.get();
+        }
+        Integer previous = ShardContext.current();
+        if(previous != null && previous != shard){
+            throw new IllegalStateException("Already running on shard " + previous + ", can't switch to shard " + shard);
+        }
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Runs the work on every shard in parallel, returning the results in shard order.
+     * Each shard runs on its own thread, so any transaction must be started inside the work.
+     */
+    public <T> List<T> onEachShard(Supplier<T> work) {
+        List<T> results = new ArrayList<>(shardCount);
+        if(!isSharded()){
+            results.add(work.get());
+            return results;
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(target, work), countingScatterExecutor));
+        }
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Groups the rooms by shard, in shard order.
+     */
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> roomIds) {
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (Long roomId : roomIds) {
+            groups.computeIfAbsent(shardOfRoom(roomId), shard -> new ArrayList<>()).add(roomId);
+        }
+        return groups;
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach), moving only 1/n of the hotels when going to n shards.
+     */
+    static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while(j < buckets){
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+}
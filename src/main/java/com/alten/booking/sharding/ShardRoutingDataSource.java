@@ -0,0 +1,18 @@
+package com.alten.booking.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Opens the connections on the shard of the current thread, the first shard when none is set.
+ * Must sit behind a LazyConnectionDataSourceProxy, so a transaction only picks its connection once
+ * the service has set its shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : ShardRouter.DEFAULT_SHARD;
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.alten.booking.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Spreads the hotels over the databases of booking.sharding.shards, only when booking.sharding.enabled is set.
+ * Hibernate manages the schema of the first shard, the same schema being applied to the other ones at startup.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    @Bean
+    @ConditionalOnProperty("booking.sharding.enabled")
+    public ShardDataSources shardDataSources(ShardingProperties properties, Environment environment) {
+        if(environment.containsProperty("booking.datasource.replica.url")){
+            throw new IllegalStateException("The sharded mode can't be combined with a read replica");
+        }
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if(shards.size() < 2){
+            throw new IllegalStateException("The sharded mode needs at least two shards");
+        }
+        ShardDataSources dataSources = new ShardDataSources();
+        for (int i = 0; i < shards.size(); i++) {
+            ShardingProperties.Shard shard = shards.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(shard.getUrl()).username(shard.getUsername()).password(shard.getPassword()).build();
+            dataSource.setPoolName("shard" + i);
+            dataSource.setMaximumPoolSize(shard.getMaxPoolSize());
+            dataSources.add(dataSource);
+        }
+        return dataSources;
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty("booking.sharding.enabled")
+    public DataSource dataSource(ShardDataSources shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shards.get(ShardRouter.DEFAULT_SHARD));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    @ConditionalOnProperty("booking.sharding.enabled")
+    public MetadataCapture metadataCapture() {
+        return new MetadataCapture();
+    }
+
+    @Bean
+    @ConditionalOnProperty("booking.sharding.enabled")
+    public HibernatePropertiesCustomizer shardIntegratorCustomizer(MetadataCapture metadataCapture) {
+        return properties -> {
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> Collections.singletonList(metadataCapture));
+            properties.put(ShardAwareSequenceGenerator.SHARDED, Boolean.TRUE.toString());
+        };
+    }
+
+    /**
+     * Applies the ddl-auto of the first shard to the other ones once the entity manager factory is built.
+     */
+    @Bean
+    @ConditionalOnProperty("booking.sharding.enabled")
+    public SmartInitializingSingleton shardSchemaInitializer(EntityManagerFactory entityManagerFactory, MetadataCapture metadataCapture,
+            ShardDataSources shards, @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return () -> {
+            boolean create = "create".equals(ddlAuto) || "create-drop".equals(ddlAuto);
+            if(!create && !"update".equals(ddlAuto)){
+                return;
+            }
+            for (int shard = 1; shard < shards.size(); shard++) {
+                ShardContext.set(shard);
+                try {
+                    if(create){
+                        new SchemaExport().create(EnumSet.of(TargetType.DATABASE), metadataCapture.getMetadata());
+                    }else{
+                        new SchemaUpdate().execute(EnumSet.of(TargetType.DATABASE), metadataCapture.getMetadata());
+                    }
+                } finally {
+                    ShardContext.set(null);
+                }
+            }
+        };
+    }
+
+    /**
+     * The connection pools of the shards, closed with the context.
+     */
+    public static class ShardDataSources extends ArrayList<HikariDataSource> implements AutoCloseable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void close() {
+            forEach(HikariDataSource::close);
+        }
+
+    }
+
+    /**
+     * Keeps the mapping metadata Hibernate built, to export the schema to the other shards.
+     */
+    public static class MetadataCapture implements Integrator {
+
+        private volatile Metadata metadata;
+
+        public Metadata getMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            this.metadata = metadata;
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            this.metadata = null;
+        }
+
+    }
+
+}
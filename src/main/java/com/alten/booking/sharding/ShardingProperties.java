@@ -0,0 +1,50 @@
+package com.alten.booking.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("booking.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Threads running the per-shard queries of a scatter-gather, shared by every request.
+     */
+    private int scatterPoolSize = 16;
+
+    /**
+     * Rooms whose shard is remembered, the least recent ones being looked up again.
+     */
+    private long maxTrackedRooms = 100000;
+
+    /**
+     * How long a room found on no shard is sent to the default shard without looking it up again,
+     * a room created meanwhile being found once it passed.
+     */
+    private long unknownRoomTtlMs = 5000;
+
+    /**
+     * The shard databases in shard order. Their order must never change once data was written.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maxPoolSize = 10;
+
+    }
+
+}
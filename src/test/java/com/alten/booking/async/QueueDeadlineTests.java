@@ -0,0 +1,37 @@
+package com.alten.booking.async;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class QueueDeadlineTests {
+
+    @Test
+    @DisplayName("Test queue deadline - A task queued for the request timeout is not run")
+    public void givenTaskQueuedPastTheTimeout_whenRun_thenItIsDropped() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        Runnable task = new QueueDeadline(Duration.ofMillis(10)).decorate(() -> ran.set(true));
+
+        Thread.sleep(20);
+        task.run();
+
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test queue deadline - A task run before the request timeout is run")
+    public void givenTaskQueuedBeforeTheTimeout_whenRun_thenItIsRun() {
+        AtomicBoolean ran = new AtomicBoolean();
+        new QueueDeadline(Duration.ofMinutes(1)).decorate(() -> ran.set(true)).run();
+        assertThat(ran).isTrue();
+
+        ran.set(false);
+        new QueueDeadline(null).decorate(() -> ran.set(true)).run();
+        assertThat(ran).isTrue();
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.alten.booking.benchmark;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.alten.booking.domain.Hotel;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomDetails;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.RoomCheckDto;
+import com.alten.booking.occupancy.AvailabilitySnapshots;
+import com.alten.booking.occupancy.RoomOccupancyIndex;
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.service.ReservationService;
+import com.alten.booking.service.RoomService;
+import com.alten.booking.sharding.ShardRouter;
+import com.alten.booking.sharding.ShardingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    private static final Long ROOM_ID = 1L;
+
+    @Param({"10", "1000", "100000"})
+    private int reservationsPerRoom;
+
+    private ReservationService reservationService;
+    private AvailabilitySnapshots availabilitySnapshots;
+    private int advanceDays;
+    private RoomCheckDto freeCheck;
+    private RoomCheckDto reservedCheck;
+    private RoomCheckDto pastCheck;
+
+    @Setup
+    public void setUp() {
+        // The available dates span every reservation, so their computation grows with them
+        advanceDays = 3 * reservationsPerRoom;
+        Room room = new Room(ROOM_ID, new Hotel(1L, "Cancun Last Resort", null), new RoomDetails(1L, 3, advanceDays));
+        LocalDate today = LocalDate.now();
+        //Two nights reserved every three nights, leaving one free night between reservations
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < reservationsPerRoom; i++) {
+            LocalDate startDate = today.plusDays(3L * i);
+            reservations.add(new Reservation((long) i, "guest@gmail.com", today, startDate, startDate.plusDays(2), StatusEnum.RESERVED.toString(), room, null, 0L));
+        }
+        ReservationRepository reservationRepo = InMemoryReservationRepository.of(reservations);
+
+        // Wired like the Spring context does with the sharded mode off, without any database
+        ShardRouter shardRouter = new ShardRouter();
+        ReflectionTestUtils.setField(shardRouter, "properties", new ShardingProperties());
+        shardRouter.init();
+        PlatformTransactionManager transactionManager = new NoTransactionManager();
+
+        RoomOccupancyIndex occupancyIndex = new RoomOccupancyIndex();
+        ReflectionTestUtils.setField(occupancyIndex, "roomNightRepo", InMemoryRoomNightRepository.of(reservations));
+        ReflectionTestUtils.setField(occupancyIndex, "roomRepo", InMemoryRoomRepository.of(room));
+        ReflectionTestUtils.setField(occupancyIndex, "shardRouter", shardRouter);
+        ReflectionTestUtils.setField(occupancyIndex, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(occupancyIndex, "maxRooms", 100000L);
+        ReflectionTestUtils.setField(occupancyIndex, "ttlSeconds", 3600L);
+        occupancyIndex.init();
+
+        availabilitySnapshots = new AvailabilitySnapshots();
+        ReflectionTestUtils.setField(availabilitySnapshots, "occupancyIndex", occupancyIndex);
+        ReflectionTestUtils.setField(availabilitySnapshots, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(availabilitySnapshots, "maxRooms", 100000L);
+        ReflectionTestUtils.setField(availabilitySnapshots, "ttlSeconds", 3600L);
+        availabilitySnapshots.init();
+
+        reservationService = new ReservationService();
+        ReflectionTestUtils.setField(reservationService, "reservationRepo", reservationRepo);
+        ReflectionTestUtils.setField(reservationService, "occupancyIndex", occupancyIndex);
+        ReflectionTestUtils.setField(reservationService, "availabilitySnapshots", availabilitySnapshots);
+        ReflectionTestUtils.setField(reservationService, "shardRouter", shardRouter);
+        ReflectionTestUtils.setField(reservationService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(reservationService, "roomService", new RoomService() {
+            @Override
+            public Room findById(Long id) {
+                return room;
+            }
+        });
+        reservationService.init();
+
+        LocalDate middle = today.plusDays(3L * (reservationsPerRoom / 2));
+        freeCheck = check(middle.plusDays(2), middle.plusDays(3));
+        reservedCheck = check(middle, middle.plusDays(2));
+        pastCheck = check(today.minusDays(1), middle.plusDays(3));
+        // Load the occupancy index before measuring
+        reservationService.isRoomAvailable(ROOM_ID, freeCheck);
+    }
+
+    @Benchmark
+    public Boolean isRoomAvailableFree() {
+        return reservationService.isRoomAvailable(ROOM_ID, freeCheck);
+    }
+
+    @Benchmark
+    public Boolean isRoomAvailableReserved() {
+        return reservationService.isRoomAvailable(ROOM_ID, reservedCheck);
+    }
+
+    @Benchmark
+    public Boolean isRoomAvailableBeforeIndex() {
+        return reservationService.isRoomAvailable(ROOM_ID, pastCheck);
+    }
+
+    /**
+     * Computes the available dates again on each call, as after a change to the room.
+     */
+    @Benchmark
+    public List<String> getRoomAvailableDates() {
+        return availabilitySnapshots.take(ROOM_ID, advanceDays).getDates();
+    }
+
+    /**
+     * Returns the current snapshot, as when the room did not change since the dates were last asked for.
+     */
+    @Benchmark
+    public List<String> getRoomAvailableDatesCurrent() {
+        return reservationService.getRoomAvailableDates(ROOM_ID);
+    }
+
+    /**
+     * Runs the transactions of the benchmarked paths as plain calls, the repositories being in memory.
+     */
+    private static class NoTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            // Nothing to commit
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            // Nothing to roll back
+        }
+
+    }
+
+    private RoomCheckDto check(LocalDate startDate, LocalDate endDate) {
+        return new RoomCheckDto(startDate.format(DateTimeFormatter.ISO_LOCAL_DATE), endDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+    }
+
+}
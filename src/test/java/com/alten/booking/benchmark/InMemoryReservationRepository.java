@@ -0,0 +1,47 @@
+package com.alten.booking.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.repository.ReservationRepository;
+
+/**
+ * Reservation repository answering the availability queries from a list, so the benchmarks
+ * measure the service and not the database.
+ */
+public class InMemoryReservationRepository implements InvocationHandler {
+
+    private final List<Reservation> reservations;
+
+    private InMemoryReservationRepository(List<Reservation> reservations) {
+        this.reservations = reservations;
+    }
+
+    public static ReservationRepository of(List<Reservation> reservations) {
+        return (ReservationRepository) Proxy.newProxyInstance(ReservationRepository.class.getClassLoader(), 
+            new Class<?>[] { ReservationRepository.class }, new InMemoryReservationRepository(reservations));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findAllByRoomIdAndStatus":
+                return reservations.stream()
+                    .filter(r -> r.getRoom().getId().equals(args[0]) && r.getStatus().equals(args[1]))
+                    .collect(Collectors.toList());
+            case "existsOverlappingReservation":
+                return reservations.stream()
+                    .anyMatch(r -> r.getRoom().getId().equals(args[0]) && r.getStartDate().isBefore((LocalDate) args[2]) && r.getEndDate().isAfter((LocalDate) args[1]));
+            case "toString":
+                return "InMemoryReservationRepository";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.alten.booking.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.repository.RoomNightRepository;
+
+/**
+ * Room night repository deriving the nights from a list of reservations.
+ */
+public class InMemoryRoomNightRepository implements InvocationHandler {
+
+    private final List<Reservation> reservations;
+
+    private InMemoryRoomNightRepository(List<Reservation> reservations) {
+        this.reservations = reservations;
+    }
+
+    public static RoomNightRepository of(List<Reservation> reservations) {
+        return (RoomNightRepository) Proxy.newProxyInstance(RoomNightRepository.class.getClassLoader(), 
+            new Class<?>[] { RoomNightRepository.class }, new InMemoryRoomNightRepository(reservations));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findNightsByRoomFrom":
+                LocalDate from = (LocalDate) args[1];
+                return reservations.stream()
+                    .filter(r -> r.getRoom().getId().equals(args[0]))
+                    .flatMap(r -> Stream.iterate(r.getStartDate(), night -> night.plusDays(1)).limit(r.getEndDate().toEpochDay() - r.getStartDate().toEpochDay()))
+                    .filter(night -> !night.isBefore(from))
+                    .collect(Collectors.toList());
+            case "toString":
+                return "InMemoryRoomNightRepository";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+}
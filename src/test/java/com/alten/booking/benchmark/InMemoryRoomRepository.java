@@ -0,0 +1,39 @@
+package com.alten.booking.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+import com.alten.booking.domain.Room;
+import com.alten.booking.repository.RoomRepository;
+
+/**
+ * Room repository answering the version lookups of the occupancy index for a single room.
+ */
+public class InMemoryRoomRepository implements InvocationHandler {
+
+    private final Room room;
+
+    private InMemoryRoomRepository(Room room) {
+        this.room = room;
+    }
+
+    public static RoomRepository of(Room room) {
+        return (RoomRepository) Proxy.newProxyInstance(RoomRepository.class.getClassLoader(), 
+            new Class<?>[] { RoomRepository.class }, new InMemoryRoomRepository(room));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findVersionById":
+                return room.getId().equals(args[0]) ? Optional.of(0L) : Optional.empty();
+            case "toString":
+                return "InMemoryRoomRepository";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.alten.booking.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alten.booking.domain.Hotel;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomDetails;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationDto;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationDtoBenchmark {
+
+    private Reservation reservation;
+
+    @Setup
+    public void setUp() {
+        Room room = new Room(1L, new Hotel(1L, "Cancun Last Resort", null), new RoomDetails(1L, 3, 30));
+        reservation = new Reservation(1L, "guest@gmail.com", LocalDate.now(), LocalDate.now().plusDays(1), 
+            LocalDate.now().plusDays(3), StatusEnum.RESERVED.toString(), room, null, 0L);
+    }
+
+    @Benchmark
+    public ReservationDto fromEntity() {
+        return new ReservationDto(reservation);
+    }
+
+    @Benchmark
+    public ReservationDto fromProjection() {
+        return new ReservationDto(reservation.getId(), 1L, reservation.getGuestEmail(), reservation.getStartDate(), 
+            reservation.getEndDate(), reservation.getStatus());
+    }
+
+}
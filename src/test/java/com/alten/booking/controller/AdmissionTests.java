@@ -0,0 +1,113 @@
+package com.alten.booking.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.ReservationPageResponseDto;
+import com.alten.booking.occupancy.AvailabilitySnapshot;
+import com.alten.booking.service.ReservationService;
+
+@SpringBootTest(properties = {
+    "booking.admission.max-concurrent-requests=3",
+    "booking.admission.budgets.lookup.rate-per-second=0.01",
+    "booking.admission.budgets.lookup.burst=2",
+    "booking.admission.budgets.list.rate-per-second=0.01",
+    "booking.admission.budgets.list.burst=2"
+})
+@AutoConfigureMockMvc
+public class AdmissionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReservationService service;
+
+    @Test
+    @DisplayName("GET /reservation/1 - Too Many Requests - IP spent its budget")
+    public void givenIpOverBudget_whenGetReservation_thenReturnTooManyRequests() throws Exception{
+        given(service.findDtoById(1L)).willReturn(new ReservationDto());
+
+        for (int i = 0; i < 2; i++) {
+            dispatch(mockMvc.perform(fromIp(get("/reservation/1"), "10.0.0.1")).andReturn());
+        }
+        mockMvc.perform(fromIp(get("/reservation/1"), "10.0.0.1"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists("Retry-After"));
+        dispatch(mockMvc.perform(fromIp(get("/reservation/1"), "10.0.0.2")).andReturn());
+    }
+
+    @Test
+    @DisplayName("POST /reservation/list - Too Many Requests - Guest spent its budget from many IPs")
+    public void givenGuestOverBudget_whenListReservations_thenReturnTooManyRequests() throws Exception{
+        given(service.getUserReservationsPageList(any())).willReturn(new ReservationPageResponseDto());
+
+        for (int i = 0; i < 2; i++) {
+            dispatch(mockMvc.perform(fromIp(list("bot@gmail.com"), "10.0.1." + i)).andReturn());
+        }
+        mockMvc.perform(fromIp(list("bot@gmail.com"), "10.0.1.2"))
+            .andExpect(status().isTooManyRequests());
+        dispatch(mockMvc.perform(fromIp(list("guest@gmail.com"), "10.0.1.2")).andReturn());
+    }
+
+    @Test
+    @DisplayName("GET /room/1/availableDates - Service Unavailable - Too many requests in progress")
+    public void givenMaxRequestsInProgress_whenGetAvailableDates_thenReturnServiceUnavailable() throws Exception{
+        given(service.getRoomAvailabilitySnapshot(1L)).willReturn(new AvailabilitySnapshot(null, 0, LocalDate.now(), 
+            Collections.emptyList(), "[]".getBytes(), "\"etag\""));
+
+        List<MvcResult> inProgress = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            inProgress.add(mockMvc.perform(fromIp(get("/room/1/availableDates"), "10.0.2." + i))
+                .andExpect(request().asyncStarted()).andReturn());
+        }
+        mockMvc.perform(fromIp(get("/room/1/availableDates"), "10.0.2.3"))
+            .andExpect(status().isServiceUnavailable());
+
+        for (MvcResult result : inProgress) {
+            dispatch(result);
+        }
+        dispatch(mockMvc.perform(fromIp(get("/room/1/availableDates"), "10.0.2.3")).andReturn());
+    }
+
+    private MockHttpServletRequestBuilder list(String guestEmail) {
+        return post("/reservation/list")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"guestEmail\":\"" + guestEmail + "\"}");
+    }
+
+    private MockHttpServletRequestBuilder fromIp(MockHttpServletRequestBuilder builder, String ip) {
+        return builder.with(request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        });
+    }
+
+    private void dispatch(MvcResult result) throws Exception{
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.alten.booking.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private Long roomId;
+
+    @BeforeEach
+    public void setUp(){
+        roomId = hotelFixtures.createRoom();
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus - Service timers, rejections and statement counts are exported")
+    public void givenRejectedReservation_whenScrapePrometheus_thenBookingMetricsAreExported() throws Exception{
+        ReservationCreateDto pastReservation = new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().minusDays(2).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(1).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId);
+
+        MvcResult result = mockMvc.perform(post("/reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(new ObjectMapper().writeValueAsString(pastReservation)))
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("booking_service_seconds_bucket")))
+            .andExpect(content().string(containsString("booking_reservation_rejections_total{application=\"booking\",reason=\"InvalidReservationException\",}")))
+            .andExpect(content().string(containsString("booking_http_statements_count{application=\"booking\",method=\"POST\",uri=\"/reservation\",}")))
+            .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+
+}
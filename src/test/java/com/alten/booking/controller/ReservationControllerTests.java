@@ -9,11 +9,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
@@ -53,7 +58,7 @@ public class ReservationControllerTests {
         LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), 1L);
         //Mock an existing reservation
         existingReservation = new ReservationDto(1L,1L,"guest@gmail.com", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE), 
-        LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), StatusEnum.RESERVED.toString());
+        LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), StatusEnum.RESERVED.toString(), null);
         //Mock an invalid reservation
         invalidReservationDto = new ReservationCreateDto(null, LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE), 
         LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), null);
@@ -64,7 +69,7 @@ public class ReservationControllerTests {
     public void givenReservationId_whenGetReservationById_thenReturnJsonArray() throws Exception{
         given(service.findDtoById(1L)).willReturn(existingReservation);
         
-        mockMvc.perform(get("/reservation/1")
+        performAsync(get("/reservation/1")
            .contentType(MediaType.APPLICATION_JSON))
            .andExpect(status().isOk())
            .andExpect(jsonPath("$.reservationId").value(1L))
@@ -78,7 +83,7 @@ public class ReservationControllerTests {
     public void givenUnknownReservationId_whenGetReservationById_thenReturnNotFound() throws Exception{
         given(service.findDtoById(2L)).willThrow(new NotFoundException("Reservation not found for id: 2"));
 
-        mockMvc.perform(get("/reservation/{id}", 2L))
+        performAsync(get("/reservation/{id}", 2L))
                 .andExpect(status().isNotFound());
     }
 
@@ -87,9 +92,9 @@ public class ReservationControllerTests {
     public void givenValidData_whenCreateReservation_thenReturnJsonArray() throws Exception{
         ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
 
-        given(service.validateAndCreateReservation(newReservationDto)).willReturn(existingReservation);
+        given(service.validateAndCreateReservation(newReservationDto, null)).willReturn(existingReservation);
 
-        mockMvc.perform(post("/reservation")
+        performAsync(post("/reservation")
            .contentType(MediaType.APPLICATION_JSON)
            .content(ow.writeValueAsString(newReservationDto)) 
            .accept(MediaType.APPLICATION_JSON))
@@ -105,7 +110,7 @@ public class ReservationControllerTests {
     public void givenInvalidData_whenCreateReservation_thenReturnBadRequest() throws Exception{
         ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
 
-        given(service.validateAndCreateReservation(invalidReservationDto)).willThrow(new RuntimeException("Invalid reservation payload"));
+        given(service.validateAndCreateReservation(invalidReservationDto, null)).willThrow(new RuntimeException("Invalid reservation payload"));
 
         mockMvc.perform(post("/reservation")
            .contentType(MediaType.APPLICATION_JSON)
@@ -121,7 +126,7 @@ public class ReservationControllerTests {
 
         invalidReservationDto.setEndDate(LocalDate.now().plusDays(5).format(DateTimeFormatter.ISO_LOCAL_DATE));
 
-        given(service.validateAndCreateReservation(invalidReservationDto)).willThrow(new MaxReserveDaysException("Your reservation can't be longer than 3 days"));
+        given(service.validateAndCreateReservation(invalidReservationDto, null)).willThrow(new MaxReserveDaysException("Your reservation can't be longer than 3 days"));
 
         mockMvc.perform(post("/reservation")
            .contentType(MediaType.APPLICATION_JSON)
@@ -138,7 +143,7 @@ public class ReservationControllerTests {
         invalidReservationDto.setStartDate(LocalDate.now().plusDays(30).format(DateTimeFormatter.ISO_LOCAL_DATE));
         invalidReservationDto.setEndDate(LocalDate.now().plusDays(33).format(DateTimeFormatter.ISO_LOCAL_DATE));
 
-        given(service.validateAndCreateReservation(invalidReservationDto)).willThrow(new MaxReserveAdvanceDaysException("Your reservation can't be longer than 30 days in advance"));
+        given(service.validateAndCreateReservation(invalidReservationDto, null)).willThrow(new MaxReserveAdvanceDaysException("Your reservation can't be longer than 30 days in advance"));
 
         mockMvc.perform(post("/reservation")
            .contentType(MediaType.APPLICATION_JSON)
@@ -147,5 +152,11 @@ public class ReservationControllerTests {
            .andExpect(status().isBadRequest());
     }
 
-    
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception{
+        MvcResult result = mockMvc.perform(builder)
+           .andExpect(request().asyncStarted())
+           .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
 }
@@ -0,0 +1,124 @@
+package com.alten.booking.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDeleteDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.service.ReservationService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RoomAvailableDatesTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private Long roomId;
+    private LocalDate today;
+
+    @BeforeEach
+    public void setUp(){
+        today = LocalDate.now();
+        roomId = hotelFixtures.createRoom();
+    }
+
+    @Test
+    @DisplayName("GET /room/{id}/availableDates - Not Modified - The dates did not change since the ETag was sent")
+    public void givenCurrentETag_whenGetAvailableDates_thenReturnNotModified() throws Exception{
+        MvcResult first = perform(availableDates())
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(content().json(datesExcept(), true))
+            .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        perform(availableDates().header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getTransactionCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /room/{id}/availableDates - Reservations of the room change the dates and their ETag")
+    public void givenReservationChanges_whenGetAvailableDates_thenReturnTheNewDates() throws Exception{
+        String eTag = perform(availableDates()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        ReservationDto reservation = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com",
+            today.plusDays(1).toString(), today.plusDays(2).toString(), roomId));
+
+        MvcResult booked = perform(availableDates().header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(content().json(datesExcept(1), true))
+            .andReturn();
+        assertThat(booked.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+
+        reservationService.cancelReservation(reservation.getReservationId(), new ReservationDeleteDto("guest@gmail.com"));
+
+        perform(availableDates().header(HttpHeaders.IF_NONE_MATCH, booked.getResponse().getHeader(HttpHeaders.ETAG)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    private MockHttpServletRequestBuilder availableDates() {
+        return get("/room/" + roomId + "/availableDates");
+    }
+
+    private String datesExcept(int... reservedDays) {
+        List<String> dates = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            int offset = day;
+            if(IntStream.of(reservedDays).noneMatch(reserved -> reserved == offset)){
+                dates.add("\"" + today.plusDays(day) + "\"");
+            }
+        }
+        return "[" + String.join(",", dates) + "]";
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception{
+        MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.alten.booking.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.service.ReservationService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RoomCalendarTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private List<Long> roomIds;
+    private LocalDate today;
+
+    @BeforeEach
+    public void setUp(){
+        today = LocalDate.now();
+        roomIds = hotelFixtures.createRooms(2);
+    }
+
+    @Test
+    @DisplayName("GET /room/calendar - Free nights are returned as ranges per room")
+    public void givenReservedRoom_whenGetCalendar_thenReturnFreeRanges() throws Exception{
+        reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", 
+            today.plusDays(2).toString(), today.plusDays(4).toString(), roomIds.get(0)));
+        reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", 
+            today.plusDays(6).toString(), today.plusDays(7).toString(), roomIds.get(0)));
+
+        MvcResult result = mockMvc.perform(get("/room/calendar")
+            .param("roomIds", roomIds.get(1) + "," + roomIds.get(0))
+            .param("start", today.plusDays(1).toString())
+            .param("end", today.plusDays(10).toString()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"start\":\"" + today.plusDays(1) + "\",\"end\":\"" + today.plusDays(10) + "\",\"rooms\":["
+                + "{\"roomId\":" + roomIds.get(0) + ",\"free\":[[\"" + today.plusDays(1) + "\",\"" + today.plusDays(2) + "\"],"
+                + "[\"" + today.plusDays(4) + "\",\"" + today.plusDays(6) + "\"],[\"" + today.plusDays(7) + "\",\"" + today.plusDays(10) + "\"]]},"
+                + "{\"roomId\":" + roomIds.get(1) + ",\"free\":[[\"" + today.plusDays(1) + "\",\"" + today.plusDays(10) + "\"]]}]}", true));
+    }
+
+    @Test
+    @DisplayName("GET /room/calendar - Unknown room")
+    public void givenUnknownRoom_whenGetCalendar_thenReturnNotFound() throws Exception{
+        mockMvc.perform(get("/room/calendar")
+            .param("roomIds", roomIds.get(0) + ",-1")
+            .param("start", today.toString())
+            .param("end", today.plusDays(10).toString()))
+            .andExpect(status().isNotFound());
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.alten.booking.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.alten.booking.domain.IdempotencyRecord;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.idempotency.IdempotencyStore;
+import com.alten.booking.occupancy.RoomOccupancyIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = {
+    "booking.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "booking.datasource.replica.username=sa"
+})
+public class ReplicaRoutingTests {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Test replica routing - Read-only transactions use the replica")
+    public void whenTransactionIsReadOnly_thenReplicaIsUsed() {
+        assertThat(databaseOf(readOnly(), null)).isEqualTo("REPLICA");
+        assertThat(databaseOf(new TransactionTemplate(transactionManager), null)).startsWith("BOOKING");
+    }
+
+    @Test
+    @DisplayName("Test replica routing - A guest who just wrote reads from the primary")
+    public void whenGuestJustWrote_thenPrimaryIsUsedForTheirReads() {
+        readYourWrites.recordWrite("guest@gmail.com");
+
+        assertThat(databaseOf(readOnly(), "guest@gmail.com")).startsWith("BOOKING");
+        assertThat(databaseOf(readOnly(), "other@gmail.com")).isEqualTo("REPLICA");
+        // The primary is only kept for the transaction of that guest
+        assertThat(databaseOf(readOnly(), null)).isEqualTo("REPLICA");
+    }
+
+    @Test
+    @DisplayName("Test replica routing - The occupancy index is loaded from the primary")
+    public void whenOccupancyIsLoadedInReadOnlyTransaction_thenPrimaryIsUsed() {
+        Long roomId = hotelFixtures.createRoom();
+        LocalDate today = LocalDate.now();
+        // The room only exists on the primary, the replica failing the load
+        Boolean free = readOnly().execute(status -> occupancyIndex.isFree(roomId, today, today.plusDays(1)));
+
+        assertThat(free).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test replica routing - An Idempotency-Key stored by another instance is read from the primary")
+    public void givenKeyOnlyOnThePrimary_whenFound_thenTheStoredReservationIsReturned() throws Exception {
+        ReservationCreateDto dto = new ReservationCreateDto("guest@gmail.com",
+            LocalDate.now().plusDays(1).toString(), LocalDate.now().plusDays(3).toString(), 1L);
+        String key = UUID.randomUUID().toString();
+        String fingerprint = idempotencyStore.fingerprint(dto);
+        ReservationDto reservation = new ReservationDto(1L, 1L, dto.getGuestEmail(), dto.getStartDate(), dto.getEndDate(), StatusEnum.RESERVED.toString(), null);
+        // Written by another instance, so this one has not cached it and the lagging replica does not have it
+        new TransactionTemplate(transactionManager).execute(status -> {
+            entityManager.persist(new IdempotencyRecord(key, fingerprint, write(reservation), LocalDateTime.now()));
+            return null;
+        });
+
+        assertThat(idempotencyStore.find(key, fingerprint)).contains(reservation);
+    }
+
+    private String write(ReservationDto reservation) {
+        try {
+            return objectMapper.writeValueAsString(reservation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private String databaseOf(TransactionTemplate template, String guestEmail) {
+        return template.execute(status -> {
+            readYourWrites.routeGuest(guestEmail);
+            return entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult().toString();
+        });
+    }
+
+}
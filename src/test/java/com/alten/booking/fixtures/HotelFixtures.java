@@ -0,0 +1,74 @@
+package com.alten.booking.fixtures;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.Hotel;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomDetails;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Creates the hotel the tests book, each call persisting a new hotel with rooms of a single type in its own transaction.
+ */
+@Component
+public class HotelFixtures {
+
+    public static final String HOTEL_NAME = "Cancun Last Resort";
+    public static final int MAX_RESERVE_DAYS = 3;
+    public static final int MAX_RESERVE_ADVANCE_DAYS = 30;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Long createRoom() {
+        return createRooms(1).get(0);
+    }
+
+    public List<Long> createRooms(int rooms) {
+        return createHotel(rooms).getRoomIds();
+    }
+
+    public CreatedHotel createHotel(int rooms) {
+        return createHotel(rooms, MAX_RESERVE_ADVANCE_DAYS);
+    }
+
+    public CreatedHotel createHotel(int rooms, int maxReserveAdvanceDays) {
+        return transactionTemplate.execute(status -> {
+            Hotel hotel = new Hotel(null, HOTEL_NAME, null);
+            entityManager.persist(hotel);
+            RoomDetails details = new RoomDetails(null, MAX_RESERVE_DAYS, maxReserveAdvanceDays);
+            entityManager.persist(details);
+            List<Long> roomIds = new ArrayList<>();
+            for (int i = 0; i < rooms; i++) {
+                Room room = new Room(null, hotel, details);
+                entityManager.persist(room);
+                roomIds.add(room.getId());
+            }
+            return new CreatedHotel(hotel.getId(), details.getId(), roomIds);
+        });
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CreatedHotel {
+
+        private Long hotelId;
+        private Long roomDetailsId;
+        private List<Long> roomIds;
+
+    }
+
+}
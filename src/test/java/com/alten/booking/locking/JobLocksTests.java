@@ -0,0 +1,69 @@
+package com.alten.booking.locking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import com.alten.booking.repository.JobLockRepository;
+
+@SpringBootTest
+public class JobLocksTests {
+
+    private static final String JOB = "test-job";
+
+    @Autowired
+    private JobLocks jobLocks;
+
+    @Autowired
+    private JobLockRepository jobLockRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** The job locks of another instance, with an owner of its own */
+    private JobLocks otherInstance;
+
+    @BeforeEach
+    public void setUp(){
+        jobLockRepo.deleteAll();
+        otherInstance = new JobLocks();
+        ReflectionTestUtils.setField(otherInstance, "jobLockRepo", jobLockRepo);
+        ReflectionTestUtils.setField(otherInstance, "transactionTemplate", transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Test job locks - A job runs on a single instance until its lease is released or runs out")
+    public void givenLeasedJob_whenAnotherInstanceTriesIt_thenItOnlyGetsItOnceReleasedOrExpired() {
+        assertThat(jobLocks.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        assertThat(jobLocks.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ofMinutes(5))).isFalse();
+
+        jobLocks.release(JOB);
+
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ZERO)).isTrue();
+        assertThat(jobLocks.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test job locks - A completed job is not run again")
+    public void givenCompletedJob_whenTried_thenNoInstanceGetsIt() {
+        assertThat(jobLocks.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+
+        otherInstance.complete(JOB);
+        assertThat(jobLocks.isCompleted(JOB)).isFalse();
+        jobLocks.complete(JOB);
+
+        assertThat(jobLocks.isCompleted(JOB)).isTrue();
+        assertThat(otherInstance.tryAcquire(JOB, Duration.ofMinutes(5))).isFalse();
+        assertThat(jobLocks.tryAcquire(JOB, Duration.ofMinutes(5))).isFalse();
+    }
+
+}
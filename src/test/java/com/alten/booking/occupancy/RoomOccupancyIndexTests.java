@@ -0,0 +1,107 @@
+package com.alten.booking.occupancy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.repository.RoomVersionRepository;
+import com.alten.booking.domain.RoomNight;
+import com.alten.booking.domain.RoomNightId;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDeleteDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.exceptions.NotFoundException;
+import com.alten.booking.service.ReservationService;
+
+@SpringBootTest
+public class RoomOccupancyIndexTests {
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @Autowired
+    private RoomVersionRepository roomVersionRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long roomId;
+    private LocalDate today;
+
+    @BeforeEach
+    public void setUp(){
+        today = LocalDate.now();
+        roomId = hotelFixtures.createRoom();
+    }
+
+    @Test
+    @DisplayName("Test occupancy index - A night booked by another instance is seen once the room version is refreshed")
+    public void givenNightBookedElsewhere_whenRefreshed_thenNightIsNotFree() {
+        assertThat(occupancyIndex.isFree(roomId, today.plusDays(1), today.plusDays(2))).isTrue();
+
+        // Another instance books the night, bumping the room version without going through this index
+        transactionTemplate.execute(status -> {
+            entityManager.persist(new RoomNight(new RoomNightId(roomId, today.plusDays(1)), Long.MAX_VALUE));
+            return roomVersionRepository.bump(roomId);
+        });
+        RoomOccupancy stale = occupancyIndex.loadedOccupancy(roomId);
+
+        assertThat(occupancyIndex.refresh()).isPositive();
+        assertThat(occupancyIndex.loadedOccupancy(roomId)).isNull();
+        assertThat(occupancyIndex.isFree(roomId, today.plusDays(1), today.plusDays(2))).isFalse();
+        assertThat(occupancyIndex.loadedOccupancy(roomId)).isNotSameAs(stale);
+    }
+
+    @Test
+    @DisplayName("Test occupancy index - Rooms booked and canceled on this instance are kept in sync without a reload")
+    public void givenRoomBookedAndCanceledHere_whenRefreshed_thenOccupancyIsKept() {
+        assertThat(occupancyIndex.isFree(roomId, today.plusDays(1), today.plusDays(2))).isTrue();
+        RoomOccupancy loaded = occupancyIndex.loadedOccupancy(roomId);
+
+        ReservationDto booked = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", date(1), date(2), roomId));
+
+        assertThat(occupancyIndex.refresh()).isZero();
+        assertThat(occupancyIndex.loadedOccupancy(roomId)).isSameAs(loaded);
+        assertThat(occupancyIndex.isFree(roomId, today.plusDays(1), today.plusDays(2))).isFalse();
+
+        reservationService.cancelReservation(booked.getReservationId(), new ReservationDeleteDto("guest@gmail.com"));
+
+        assertThat(occupancyIndex.refresh()).isZero();
+        assertThat(occupancyIndex.loadedOccupancy(roomId)).isSameAs(loaded);
+        assertThat(occupancyIndex.isFree(roomId, today.plusDays(1), today.plusDays(2))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test occupancy index - Unknown rooms are not kept")
+    public void givenUnknownRoom_whenChecked_thenNotFoundExceptionIsThrownAndNothingIsKept() {
+        assertThrows(NotFoundException.class, () -> occupancyIndex.isFree(Long.MAX_VALUE, today, today.plusDays(1)));
+        assertThat(occupancyIndex.loadedOccupancy(Long.MAX_VALUE)).isNull();
+    }
+
+    private String date(int days) {
+        return today.plusDays(days).format(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.alten.booking.occupancy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+public class RoomOccupancyTests {
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    @DisplayName("Test occupancy - Reserved nights are not free")
+    public void whenNightsAreReserved_thenOverlappingRangesAreNotFree() {
+        RoomOccupancy occupancy = new RoomOccupancy(today);
+        occupancy.reserve(today.plusDays(2), today.plusDays(5));
+
+        assertThat(occupancy.isFree(today, today.plusDays(2))).isTrue();
+        assertThat(occupancy.isFree(today.plusDays(1), today.plusDays(3))).isFalse();
+        assertThat(occupancy.isFree(today.plusDays(4), today.plusDays(6))).isFalse();
+        assertThat(occupancy.isFree(today.plusDays(5), today.plusDays(8))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test occupancy - Released nights are free again")
+    public void whenNightsAreReleased_thenRangeIsFree() {
+        RoomOccupancy occupancy = new RoomOccupancy(today);
+        occupancy.reserve(today, today.plusDays(3));
+        occupancy.release(today, today.plusDays(3));
+
+        assertThat(occupancy.isFree(today, today.plusDays(3))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test occupancy - Free nights of a window")
+    public void whenNightsAreReserved_thenFreeNightsExcludeThem() {
+        RoomOccupancy occupancy = new RoomOccupancy(today);
+        occupancy.reserve(today.plusDays(1), today.plusDays(3));
+
+        BitSet free = occupancy.freeNights(today, 5);
+
+        assertThat(free.cardinality()).isEqualTo(3);
+        assertThat(free.get(0)).isTrue();
+        assertThat(free.get(1)).isFalse();
+        assertThat(free.get(2)).isFalse();
+        assertThat(free.get(3)).isTrue();
+        assertThat(free.get(4)).isTrue();
+    }
+
+}
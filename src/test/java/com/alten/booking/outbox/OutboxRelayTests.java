@@ -0,0 +1,107 @@
+package com.alten.booking.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.domain.ReservationEvent;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDeleteDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.repository.ReservationEventRepository;
+import com.alten.booking.service.ReservationService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest
+@RecordApplicationEvents
+public class OutboxRelayTests {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private ReservationEventRepository eventRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long roomId;
+
+    @BeforeEach
+    public void setUp(){
+        eventRepository.deleteAll();
+        roomId = hotelFixtures.createRoom();
+    }
+
+    @Test
+    @DisplayName("Test outbox - Reservation changes are relayed once and in order")
+    public void whenReservationIsCreatedAndCanceled_thenBothEventsAreRelayedInOrder() {
+        ReservationDto created = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(1).toString(), LocalDate.now().plusDays(3).toString(), roomId));
+        reservationService.cancelReservation(created.getReservationId(), new ReservationDeleteDto("guest@gmail.com"));
+
+        assertThat(relay.relay()).isEqualTo(2);
+        assertThat(applicationEvents.stream(ReservationEvent.class).collect(Collectors.toList()))
+            .extracting(ReservationEvent::getReservationId, ReservationEvent::getReservationSequence, ReservationEvent::getType, ReservationEvent::getStatus)
+            .containsExactly(tuple(created.getReservationId(), 0L, "CREATED", "RESERVED"), tuple(created.getReservationId(), 1L, "CANCELED", "CANCELED"));
+        assertThat(relay.relay()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test outbox - Events published before the retention are purged")
+    public void givenPublishedEvents_whenPurged_thenOnlyTheOldPublishedOnesAreDeleted() {
+        ReservationDto created = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(1).toString(), LocalDate.now().plusDays(3).toString(), roomId));
+        relay.relay();
+        reservationService.cancelReservation(created.getReservationId(), new ReservationDeleteDto("guest@gmail.com"));
+
+        assertThat(relay.purgePublished()).isZero();
+        transactionTemplate.execute(status -> entityManager.createQuery("UPDATE ReservationEvent e SET e.publishedAt = :publishedAt WHERE e.publishedAt IS NOT NULL")
+            .setParameter("publishedAt", LocalDateTime.now().minusDays(2))
+            .executeUpdate());
+
+        assertThat(relay.purgePublished()).isEqualTo(1);
+        assertThat(eventRepository.findAll()).extracting(ReservationEvent::getType).containsExactly("CANCELED");
+    }
+
+    @Test
+    @DisplayName("Test outbox - A rejected reservation leaves no event")
+    public void whenReservationIsRejected_thenNoEventIsWritten() {
+        ReservationCreateDto reservation = new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(1).toString(), LocalDate.now().plusDays(3).toString(), roomId);
+        reservationService.validateAndCreateReservation(reservation);
+
+        assertThrows(InvalidReservationException.class, () -> reservationService.validateAndCreateReservation(reservation));
+        assertThat(eventRepository.count()).isEqualTo(1);
+    }
+
+}
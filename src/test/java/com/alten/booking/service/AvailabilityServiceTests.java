@@ -0,0 +1,114 @@
+package com.alten.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.domain.Room;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.RoomAvailabilityBulkResponseDto;
+import com.alten.booking.dto.RoomAvailabilityQueryDto;
+import com.alten.booking.dto.RoomCheckDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest
+public class AvailabilityServiceTests {
+
+    private static final int ROOMS = 4;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        roomIds = hotelFixtures.createRooms(ROOMS);
+        //Room i is booked from day 2 * i to day 2 * i + 2, the last room staying free
+        for (int i = 0; i < ROOMS - 1; i++) {
+            reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", date(2 * i + 1), date(2 * i + 3), roomIds.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Test bulk availability - Every answer matches the single room check")
+    public void givenManyQueries_whenCheckedInBulk_thenEachAnswerMatchesTheSingleCheck() {
+        List<RoomAvailabilityQueryDto> queries = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            for (int start = 1; start <= 10; start++) {
+                for (int end = start + 1; end <= start + 3; end++) {
+                    queries.add(new RoomAvailabilityQueryDto(roomId, date(start), date(end)));
+                }
+            }
+        }
+
+        RoomAvailabilityBulkResponseDto response = availabilityService.checkAvailability(queries);
+
+        assertThat(response.getAvailable()).hasSize(queries.size());
+        assertThat(response.getUnknownRoomIds()).isEmpty();
+        for (int i = 0; i < queries.size(); i++) {
+            RoomAvailabilityQueryDto query = queries.get(i);
+            boolean expected = reservationService.isRoomAvailable(query.getRoomId(), new RoomCheckDto(query.getStartDate(), query.getEndDate()));
+            assertThat(response.getAvailable().charAt(i)).as("query %s", query).isEqualTo(expected ? '1' : '0');
+        }
+    }
+
+    @Test
+    @DisplayName("Test bulk availability - Unknown rooms and invalid ranges are not available")
+    public void givenUnknownRoomAndInvalidRanges_whenCheckedInBulk_thenTheyAreNotAvailable() {
+        List<RoomAvailabilityQueryDto> queries = Arrays.asList(
+            new RoomAvailabilityQueryDto(roomIds.get(ROOMS - 1), date(1), date(5)),
+            new RoomAvailabilityQueryDto(-1L, date(1), date(5)),
+            new RoomAvailabilityQueryDto(roomIds.get(ROOMS - 1), date(5), date(1)),
+            new RoomAvailabilityQueryDto(roomIds.get(ROOMS - 1), "not a date", date(1)));
+
+        RoomAvailabilityBulkResponseDto response = availabilityService.checkAvailability(queries);
+
+        assertThat(response.getAvailable()).isEqualTo("1000");
+        assertThat(response.getUnknownRoomIds()).containsExactly(-1L);
+    }
+
+    @Test
+    @DisplayName("Test bulk availability - The rooms of every query are read at once")
+    public void givenManyQueries_whenCheckedInBulk_thenASingleStatementIsPrepared() {
+        List<RoomAvailabilityQueryDto> queries = new ArrayList<>();
+        for (int day = 0; day < 100; day++) {
+            queries.add(new RoomAvailabilityQueryDto(roomIds.get(day % ROOMS), date(day % 10), date(day % 10 + 2)));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RoomAvailabilityBulkResponseDto response = availabilityService.checkAvailability(queries);
+
+        assertThat(response.getAvailable()).hasSize(queries.size());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private String date(int days) {
+        return LocalDate.now().plusDays(days).format(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+}
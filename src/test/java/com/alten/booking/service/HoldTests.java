@@ -0,0 +1,157 @@
+package com.alten.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.repository.RoomVersionRepository;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.ReservationUpdateDto;
+import com.alten.booking.dto.RoomCheckDto;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.hold.HoldExpiryScheduler;
+import com.alten.booking.occupancy.RoomOccupancyIndex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest(properties = "booking.hold.ttl-seconds=1")
+public class HoldTests {
+
+    private static final String GUEST = "guest@gmail.com";
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @Autowired
+    private RoomVersionRepository roomVersionRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long roomId;
+
+    @BeforeEach
+    public void setUp(){
+        roomId = hotelFixtures.createRoom();
+    }
+
+    @Test
+    @DisplayName("Test hold - The held nights can't be booked nor are available")
+    public void givenHeldRoom_whenSameNightsAreBooked_thenInvalidReservationExceptionIsThrown() {
+        ReservationDto held = reservationService.holdReservation(newReservation());
+
+        assertThat(held.getStatus()).isEqualTo(StatusEnum.HELD.toString());
+        assertThat(held.getHeldUntil()).isNotNull();
+        assertThat(reservationService.isRoomAvailable(roomId, new RoomCheckDto(newReservation().getStartDate(), newReservation().getEndDate()))).isFalse();
+        assertThrows(InvalidReservationException.class, () -> reservationService.validateAndCreateReservation(newReservation()));
+    }
+
+    @Test
+    @DisplayName("Test hold - An ended hold releases its nights")
+    public void givenHold_whenItEnds_thenItExpiresAndTheNightsCanBeBooked() throws InterruptedException {
+        ReservationDto held = reservationService.holdReservation(newReservation());
+
+        awaitStatus(held.getReservationId(), StatusEnum.EXPIRED);
+
+        assertThat(reservationService.validateAndCreateReservation(newReservation()).getStatus()).isEqualTo(StatusEnum.RESERVED.toString());
+        assertThrows(InvalidReservationException.class, () -> reservationService.validateAndUpdateReservation(held.getReservationId(), confirmation()));
+    }
+
+    @Test
+    @DisplayName("Test hold - A confirmed hold is kept")
+    public void givenHold_whenConfirmedInTime_thenItStaysReserved() throws InterruptedException {
+        ReservationDto held = reservationService.holdReservation(newReservation());
+
+        ReservationDto confirmed = reservationService.validateAndUpdateReservation(held.getReservationId(), confirmation());
+        Thread.sleep(1500);
+
+        assertThat(confirmed.getStatus()).isEqualTo(StatusEnum.RESERVED.toString());
+        assertThat(reservationService.findById(held.getReservationId()).getStatus()).isEqualTo(StatusEnum.RESERVED.toString());
+        assertThat(reservationService.findById(held.getReservationId()).getHeldUntil()).isNull();
+    }
+
+    @Test
+    @DisplayName("Test hold - The sweep releases the holds unknown to the queue")
+    public void givenEndedHoldNotQueued_whenSweepRuns_thenItExpires() {
+        Long holdId = transactionTemplate.execute(status -> {
+            Reservation hold = reservationService.createReservation(newReservation());
+            hold.setStatus(StatusEnum.HELD.toString());
+            hold.setHeldUntil(LocalDateTime.now().minusMinutes(1));
+            return hold.getId();
+        });
+
+        assertThat(holdExpiryScheduler.sweep()).isEqualTo(1);
+
+        assertThat(reservationService.findById(holdId).getStatus()).isEqualTo(StatusEnum.EXPIRED.toString());
+        assertThat(reservationService.validateAndCreateReservation(newReservation()).getStatus()).isEqualTo(StatusEnum.RESERVED.toString());
+    }
+
+    @Test
+    @DisplayName("Test hold - A hold released by another instance frees its nights once the occupancy is refreshed")
+    public void givenHoldReleasedElsewhere_whenOccupancyIsRefreshed_thenNightsAreAvailable() {
+        ReservationDto held = reservationService.holdReservation(newReservation());
+        RoomCheckDto check = new RoomCheckDto(newReservation().getStartDate(), newReservation().getEndDate());
+        assertThat(reservationService.isRoomAvailable(roomId, check)).isFalse();
+
+        // Another instance expires the hold, bumping the room version like its expiry does
+        transactionTemplate.execute(status -> {
+            entityManager.createQuery("UPDATE Reservation r SET r.status = 'EXPIRED', r.heldUntil = NULL WHERE r.id = :id")
+                .setParameter("id", held.getReservationId()).executeUpdate();
+            entityManager.createQuery("DELETE FROM RoomNight n WHERE n.reservationId = :id")
+                .setParameter("id", held.getReservationId()).executeUpdate();
+            return roomVersionRepository.bump(roomId);
+        });
+
+        occupancyIndex.refresh();
+
+        assertThat(reservationService.isRoomAvailable(roomId, check)).isTrue();
+    }
+
+    private void awaitStatus(Long reservationId, StatusEnum status) throws InterruptedException {
+        for (int i = 0; i < 50 && !status.toString().equals(reservationService.findById(reservationId).getStatus()); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(reservationService.findById(reservationId).getStatus()).isEqualTo(status.toString());
+    }
+
+    private ReservationCreateDto newReservation() {
+        return new ReservationCreateDto(GUEST, LocalDate.now().plusDays(1).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId);
+    }
+
+    private ReservationUpdateDto confirmation() {
+        ReservationUpdateDto confirmation = new ReservationUpdateDto();
+        confirmation.setGuestEmail(GUEST);
+        confirmation.setStatus(StatusEnum.RESERVED.toString());
+        return confirmation;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.alten.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.fixtures.HotelFixtures.CreatedHotel;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.exceptions.NotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@SpringBootTest
+public class HotelServiceTests {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private Long hotelId;
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        CreatedHotel hotel = hotelFixtures.createHotel(3);
+        hotelId = hotel.getHotelId();
+        roomIds = hotel.getRoomIds();
+    }
+
+    @Test
+    @DisplayName("Test hotel availability - Rooms with a reserved night are excluded")
+    public void whenRoomIsReserved_thenOnlyFreeRoomsAreReturned() {
+        reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(2).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(4).format(DateTimeFormatter.ISO_LOCAL_DATE), roomIds.get(1)));
+
+        assertThat(hotelService.findAvailableRoomIds(hotelId, LocalDate.now().plusDays(3), LocalDate.now().plusDays(5)))
+            .containsExactly(roomIds.get(0), roomIds.get(2));
+        assertThat(hotelService.findAvailableRoomIds(hotelId, LocalDate.now().plusDays(4), LocalDate.now().plusDays(6)))
+            .containsExactlyElementsOf(roomIds);
+    }
+
+    @Test
+    @DisplayName("Test hotel availability - Unknown hotel")
+    public void whenHotelDoesNotExist_thenNotFoundExceptionIsThrown() {
+        assertThrows(NotFoundException.class, () -> hotelService.findAvailableRoomIds(-1L, LocalDate.now(), LocalDate.now().plusDays(1)));
+    }
+
+}
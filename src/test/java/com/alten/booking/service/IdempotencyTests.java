@@ -0,0 +1,96 @@
+package com.alten.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.exceptions.IdempotencyKeyReusedException;
+import com.alten.booking.repository.ReservationRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+public class IdempotencyTests {
+
+    private static final int RETRIES = 8;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private Long roomId;
+    private ReservationCreateDto reservation;
+
+    @BeforeEach
+    public void setUp(){
+        roomId = hotelFixtures.createRoom();
+        reservation = new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(1).toString(), LocalDate.now().plusDays(3).toString(), roomId);
+    }
+
+    @Test
+    @DisplayName("Test idempotency - A retry gets the reservation of the first attempt")
+    public void whenRequestIsRetriedWithSameKey_thenSameReservationIsReturned() {
+        String key = UUID.randomUUID().toString();
+
+        ReservationDto created = reservationService.validateAndCreateReservation(reservation, key);
+        ReservationDto replayed = reservationService.validateAndCreateReservation(reservation, key);
+
+        assertThat(replayed).isEqualTo(created);
+        assertThat(reservationRepository.findAllByRoomIdAndStatus(roomId, "RESERVED")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Test idempotency - Concurrent retries book the room once")
+    public void whenRetriesRunConcurrently_thenAllGetTheSameReservation() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(RETRIES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ReservationDto>> results = new ArrayList<>();
+        for (int i = 0; i < RETRIES; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return reservationService.validateAndCreateReservation(reservation, key);
+            }));
+        }
+        start.countDown();
+        ReservationDto created = results.get(0).get();
+        for (Future<ReservationDto> result : results) {
+            assertThat(result.get()).isEqualTo(created);
+        }
+        executor.shutdown();
+        assertThat(reservationRepository.findAllByRoomIdAndStatus(roomId, "RESERVED")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Test idempotency - A key can't be reused for another reservation")
+    public void whenKeyIsReusedWithAnotherPayload_thenIdempotencyKeyReusedExceptionIsThrown() {
+        String key = UUID.randomUUID().toString();
+        reservationService.validateAndCreateReservation(reservation, key);
+
+        ReservationCreateDto other = new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(5).toString(), LocalDate.now().plusDays(6).toString(), roomId);
+        assertThrows(IdempotencyKeyReusedException.class, () -> reservationService.validateAndCreateReservation(other, key));
+    }
+
+}
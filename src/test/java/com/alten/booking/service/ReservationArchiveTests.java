@@ -0,0 +1,186 @@
+package com.alten.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.archive.ReservationArchiver;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.ReservationPageRequestDto;
+import com.alten.booking.dto.ReservationPageResponseDto;
+import com.alten.booking.locking.JobLocks;
+import com.alten.booking.repository.ArchivedReservationRepository;
+import com.alten.booking.repository.JobLockRepository;
+import com.alten.booking.repository.ReservationRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest(properties = "booking.archive.batch-size=2")
+public class ReservationArchiveTests {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationArchiver reservationArchiver;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ArchivedReservationRepository archivedReservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private String guest;
+    private Long roomId;
+    private List<Long> oldIds;
+    private List<Long> recentIds;
+
+    @BeforeEach
+    public void setUp(){
+        guest = UUID.randomUUID() + "@gmail.com";
+        roomId = hotelFixtures.createRoom();
+        //Three reservations ended two years ago, past the retention
+        oldIds = createOldReservations(3);
+        recentIds = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            recentIds.add(reservationService.validateAndCreateReservation(new ReservationCreateDto(guest,
+                LocalDate.now().plusDays(day).format(DateTimeFormatter.ISO_LOCAL_DATE),
+                LocalDate.now().plusDays(day + 1).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId)).getReservationId());
+        }
+        reservationArchiver.archive();
+    }
+
+    @Test
+    @DisplayName("Test archive - Old reservations move to the archive in batches and recent ones stay")
+    public void givenOldReservations_whenArchived_thenOnlyTheOldOnesMove() {
+        assertThat(reservationRepository.findAllById(oldIds)).isEmpty();
+        assertThat(archivedReservationRepository.findAllById(oldIds)).hasSize(3);
+        assertThat(reservationRepository.findAllById(recentIds)).hasSize(3);
+        assertThat(reservationService.findDtoById(oldIds.get(0)).getGuestEmail()).isEqualTo(guest);
+    }
+
+    @Test
+    @DisplayName("Test archive - A shard archived by another instance is left to it")
+    public void givenShardArchivedElsewhere_whenArchived_thenNothingMovesUntilItsLeaseIsReleased() {
+        List<Long> ids = createOldReservations(1);
+        JobLocks otherInstance = new JobLocks();
+        ReflectionTestUtils.setField(otherInstance, "jobLockRepo", jobLockRepository);
+        ReflectionTestUtils.setField(otherInstance, "transactionTemplate", transactionTemplate);
+        assertThat(otherInstance.tryAcquire("reservation-archive", Duration.ofMinutes(5))).isTrue();
+
+        assertThat(reservationArchiver.archive()).isZero();
+        assertThat(reservationRepository.findAllById(ids)).hasSize(1);
+
+        otherInstance.release("reservation-archive");
+
+        assertThat(reservationArchiver.archive()).isEqualTo(1);
+        assertThat(archivedReservationRepository.findAllById(ids)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Test archive - The guest list merges archived and live reservations in order")
+    public void givenArchivedReservations_whenListingEveryDate_thenBothAreListed() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 4);
+        request.setGuestEmail(guest);
+
+        ReservationPageResponseDto firstPage = reservationService.getUserReservationsPageList(request);
+        request.setPage(1);
+        ReservationPageResponseDto secondPage = reservationService.getUserReservationsPageList(request);
+
+        List<Long> expected = new ArrayList<>(oldIds);
+        expected.addAll(recentIds);
+        assertThat(firstPage.getTotalReservations()).isEqualTo(6);
+        assertThat(firstPage.getTotalPages()).isEqualTo(2);
+        List<Long> listed = ids(firstPage);
+        listed.addAll(ids(secondPage));
+        assertThat(listed).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Test archive - Keyset slices cover archived and live reservations once")
+    public void givenArchivedReservations_whenListingBySlices_thenEveryReservationIsListedOnce() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 4);
+        request.setGuestEmail(guest);
+        request.setContinuationToken("");
+        request.setIncludeTotal(true);
+
+        List<Long> listed = new ArrayList<>();
+        ReservationPageResponseDto slice;
+        do {
+            slice = reservationService.getUserReservationsPageList(request);
+            listed.addAll(ids(slice));
+            assertThat(slice.getTotalReservations()).isEqualTo(6);
+            request.setContinuationToken(slice.getContinuationToken());
+        } while (slice.getContinuationToken() != null);
+
+        List<Long> expected = new ArrayList<>(oldIds);
+        expected.addAll(recentIds);
+        assertThat(listed).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Test archive - A list starting inside the retention leaves the archive out")
+    public void givenArchivedReservations_whenListingFromToday_thenOnlyLiveReservationsAreListed() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 10);
+        request.setGuestEmail(guest);
+        request.setStartDate(LocalDate.now());
+        request.setEndDate(LocalDate.now().plusDays(10));
+
+        ReservationPageResponseDto page = reservationService.getUserReservationsPageList(request);
+
+        assertThat(page.getTotalReservations()).isEqualTo(3);
+        assertThat(ids(page)).isEqualTo(recentIds);
+    }
+
+    private List<Long> ids(ReservationPageResponseDto response) {
+        return response.getReservations().stream().map(ReservationDto::getReservationId).collect(Collectors.toList());
+    }
+
+    private List<Long> createOldReservations(int count) {
+        return transactionTemplate.execute(status -> {
+            Room room = entityManager.getReference(Room.class, roomId);
+            List<Long> ids = new ArrayList<>();
+            for (int day = 0; day < count; day++) {
+                LocalDate startDate = LocalDate.now().minusYears(2).plusDays(day);
+                Reservation reservation = new Reservation(null, guest, startDate.minusDays(10), startDate, startDate.plusDays(1),
+                    StatusEnum.RESERVED.toString(), room, null, 0L);
+                entityManager.persist(reservation);
+                ids.add(reservation.getId());
+            }
+            return ids;
+        });
+    }
+
+}
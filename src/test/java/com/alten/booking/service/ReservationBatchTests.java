@@ -0,0 +1,106 @@
+package com.alten.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationBatchResultDto;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.repository.RoomNightRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest
+public class ReservationBatchTests {
+
+    private static final int ROOMS = 10;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        roomNightRepository.deleteAll();
+        reservationRepository.deleteAll();
+        roomIds = hotelFixtures.createHotel(ROOMS, 60).getRoomIds();
+    }
+
+    @Test
+    @DisplayName("Test batch reservation - Each item gets its own result")
+    public void whenBatchHasConflicts_thenOnlyValidReservationsAreCreated() {
+        Long roomId = roomIds.get(0);
+        reservationService.validateAndCreateReservation(reservation(roomId, 1, 3));
+
+        List<ReservationBatchResultDto> results = reservationService.validateAndCreateReservations(Arrays.asList(
+            reservation(roomId, 3, 5),
+            reservation(roomId, 2, 4),
+            reservation(roomId, 4, 6),
+            reservation(roomId, 5, 10),
+            reservation(-1L, 3, 5)));
+
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0).getReservation()).isNotNull();
+        assertThat(results.get(1).getError()).contains("already reserved");
+        assertThat(results.get(2).getError()).contains("already reserved");
+        assertThat(results.get(3).getError()).contains("longer than 3 days");
+        assertThat(results.get(4).getError()).contains("Room not found");
+        assertThat(reservationRepository.findAllByRoomIdAndStatus(roomId, StatusEnum.RESERVED.toString())).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Test batch reservation - Inserts are batched")
+    public void whenBatchIsLarge_thenFewStatementsArePrepared() {
+        List<ReservationCreateDto> dtos = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            for (int day = 0; day < 50; day += 2) {
+                dtos.add(reservation(roomId, day, day + 2));
+            }
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ReservationBatchResultDto> results = reservationService.validateAndCreateReservations(dtos);
+
+        assertThat(results).allMatch(result -> result.getReservation() != null);
+        assertThat(statistics.getEntityStatistics(Reservation.class.getName()).getInsertCount()).isEqualTo(dtos.size());
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(50);
+    }
+
+    private ReservationCreateDto reservation(Long roomId, int startOffset, int endOffset) {
+        return new ReservationCreateDto("guest@gmail.com", 
+            LocalDate.now().plusDays(startOffset).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(endOffset).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId);
+    }
+
+}
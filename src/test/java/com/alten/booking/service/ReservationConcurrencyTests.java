@@ -0,0 +1,281 @@
+package com.alten.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomVersion;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.repository.JobLockRepository;
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.repository.RoomNightRepository;
+import com.alten.booking.repository.RoomVersionRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+
+@SpringBootTest
+public class ReservationConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int ROOMS = 8;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RoomNightService roomNightService;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomVersionRepository roomVersionRepository;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        roomNightRepository.deleteAll();
+        reservationRepository.deleteAll();
+        roomIds = hotelFixtures.createRooms(ROOMS);
+    }
+
+    @Test
+    @DisplayName("Test concurrent reservations - Same room and dates are booked once")
+    public void whenManyGuestsBookTheSameRoomAndDates_thenOnlyOneReservationIsCreated() throws Exception {
+        Long roomId = roomIds.get(0);
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            bookings.add(booking("guest" + i + "@gmail.com", roomId, 1, 3));
+        }
+
+        assertThat(countSuccesses(bookings)).isEqualTo(1);
+        assertThat(reservationRepository.findAllByRoomIdAndStatus(roomId, StatusEnum.RESERVED.toString())).hasSize(1);
+        assertNoOverlaps(roomId);
+    }
+
+    @Test
+    @DisplayName("Test concurrent reservations - Partially overlapping dates are never double booked")
+    public void whenManyGuestsBookOverlappingDates_thenNoReservationsOverlap() throws Exception {
+        Long roomId = roomIds.get(0);
+        Random random = new Random(42);
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS * 8; i++) {
+            int start = random.nextInt(20);
+            bookings.add(booking("guest" + i + "@gmail.com", roomId, start, start + 1 + random.nextInt(3)));
+        }
+
+        assertThat(countSuccesses(bookings)).isPositive();
+        assertNoOverlaps(roomId);
+    }
+
+    @Test
+    @DisplayName("Test concurrent reservations - Different rooms are all booked")
+    public void whenGuestsBookDifferentRooms_thenEveryReservationIsCreated() throws Exception {
+        List<Callable<Boolean>> bookings = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            bookings.add(booking("guest" + roomId + "@gmail.com", roomId, 1, 3));
+        }
+
+        assertThat(countSuccesses(bookings)).isEqualTo(ROOMS);
+    }
+
+    @Test
+    @DisplayName("Test room nights - A night can't be taken by two reservations")
+    public void whenNightIsAlreadyTaken_thenRoomNightKeyRejectsIt() {
+        Long roomId = roomIds.get(0);
+        ReservationDto first = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com",
+            LocalDate.now().plusDays(1).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId));
+        Reservation overlapping = new Reservation(Long.MAX_VALUE, "other@gmail.com", LocalDate.now(), LocalDate.now().plusDays(2), 
+            LocalDate.now().plusDays(4), StatusEnum.RESERVED.toString(), entityManager.getReference(Room.class, roomId), null, 0L);
+
+        assertThrows(InvalidReservationException.class, () -> transactionTemplate.execute(status -> {
+            roomNightService.addNights(overlapping);
+            roomNightService.flushNights();
+            return null;
+        }));
+        assertThat(roomNightRepository.findNightsByRoomFrom(roomId, LocalDate.now()))
+            .containsExactly(LocalDate.parse(first.getStartDate()), LocalDate.parse(first.getStartDate()).plusDays(1));
+    }
+
+    @Test
+    @DisplayName("Test room version - A booking bumps the room version on top of other instances, leaving the cached room untouched")
+    public void givenRoomBumpedElsewhere_whenBooked_thenVersionIsBumpedWithoutWritingTheRoom() {
+        Long roomId = roomIds.get(0);
+        transactionTemplate.execute(status -> roomService.findById(roomId));
+        // Another instance books the room
+        transactionTemplate.execute(status -> roomVersionRepository.bump(roomId));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ReservationDto created = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com",
+            LocalDate.now().plusDays(1).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId));
+
+        assertThat(created.getReservationId()).isNotNull();
+        assertThat(roomVersionRepository.findById(roomId).map(RoomVersion::getVersion)).contains(2L);
+        assertThat(statistics.getEntityStatistics(Room.class.getName()).getUpdateCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("room").getPutCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Test room version - Of two writers bumping the same room in their own persistence context, the second waits for the first")
+    public void givenTwoWritersOnTheSameRoom_whenBothBump_thenTheSecondWaitsAndBothBumpsCount() throws Exception {
+        Long roomId = roomIds.get(0);
+        EntityManager first = entityManagerFactory.createEntityManager();
+        EntityManager second = entityManagerFactory.createEntityManager();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            first.getTransaction().begin();
+            bump(first, roomId);
+            Future<?> secondBump = executor.submit(() -> {
+                second.getTransaction().begin();
+                bump(second, roomId);
+                second.getTransaction().commit();
+            });
+
+            Thread.sleep(200);
+            assertThat(secondBump.isDone()).isFalse();
+            first.getTransaction().commit();
+            secondBump.get(5, TimeUnit.SECONDS);
+
+            assertThat(roomVersionRepository.findById(roomId).map(RoomVersion::getVersion)).contains(2L);
+        } finally {
+            executor.shutdownNow();
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test room nights - The nights of reservations written without them are backfilled once")
+    public void givenReservationsWithoutNights_whenBackfilled_thenTheirNightsAreAdded() {
+        List<ReservationDto> reservations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            reservations.add(reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com",
+                LocalDate.now().plusDays(1).format(DateTimeFormatter.ISO_LOCAL_DATE),
+                LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), roomIds.get(i))));
+        }
+        roomNightRepository.deleteAll();
+        jobLockRepository.deleteAll();
+
+        assertThat(roomNightService.backfillNights()).isTrue();
+
+        for (ReservationDto reservation : reservations) {
+            assertThat(roomNightRepository.findNightsByRoomFrom(reservation.getRoomId(), LocalDate.now()))
+                .containsExactly(LocalDate.parse(reservation.getStartDate()), LocalDate.parse(reservation.getStartDate()).plusDays(1));
+        }
+        roomNightRepository.deleteAll();
+        assertThat(roomNightService.backfillNights()).isTrue();
+        assertThat(roomNightRepository.count()).isZero();
+    }
+
+    private void bump(EntityManager entityManager, Long roomId) {
+        entityManager.createNativeQuery("INSERT INTO room_version (room_id, version) VALUES (:roomId, 1) ON DUPLICATE KEY UPDATE version = version + 1")
+            .setParameter("roomId", roomId)
+            .executeUpdate();
+    }
+
+    private Callable<Boolean> booking(String guestEmail, Long roomId, int startOffset, int endOffset) {
+        ReservationCreateDto dto = new ReservationCreateDto(guestEmail, 
+            LocalDate.now().plusDays(startOffset).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(endOffset).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId);
+        return () -> {
+            try {
+                reservationService.validateAndCreateReservation(dto);
+                return true;
+            } catch (InvalidReservationException e) {
+                return false;
+            }
+        };
+    }
+
+    private int countSuccesses(List<Callable<Boolean>> bookings) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Callable<Boolean> booking : bookings) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return booking.call();
+                }));
+            }
+            start.countDown();
+            int successes = 0;
+            for (Future<Boolean> result : results) {
+                if(result.get()) {
+                    successes++;
+                }
+            }
+            return successes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertNoOverlaps(Long roomId) {
+        List<Reservation> reservations = reservationRepository.findAllByRoomIdAndStatus(roomId, StatusEnum.RESERVED.toString());
+        for (Reservation a : reservations) {
+            for (Reservation b : reservations) {
+                if(!a.getId().equals(b.getId())) {
+                    assertThat(a.getStartDate().isBefore(b.getEndDate()) && a.getEndDate().isAfter(b.getStartDate()))
+                        .as("Reservations %s and %s overlap", a.getId(), b.getId())
+                        .isFalse();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.alten.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.ReservationPageRequestDto;
+import com.alten.booking.dto.ReservationPageResponseDto;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.guest.GuestHashBackfill;
+import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.repository.RoomNightRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest
+public class ReservationListTests {
+
+    private static final String GUEST = "guest@gmail.com";
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GuestHashBackfill guestHashBackfill;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        roomNightRepository.deleteAll();
+        reservationRepository.deleteAll();
+        roomIds = hotelFixtures.createRooms(3);
+        //Three reservations starting each day, one per room
+        for (int day = 0; day < 10; day++) {
+            for (Long roomId : roomIds) {
+                reservationService.validateAndCreateReservation(new ReservationCreateDto(GUEST, 
+                    LocalDate.now().plusDays(day).format(DateTimeFormatter.ISO_LOCAL_DATE),
+                    LocalDate.now().plusDays(day + 1).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test keyset listing - Slices cover every reservation once and in order")
+    public void whenFollowingContinuationTokens_thenEveryReservationIsListedInOrder() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 4);
+        request.setGuestEmail(GUEST);
+        request.setContinuationToken("");
+
+        List<ReservationDto> listed = new ArrayList<>();
+        ReservationPageResponseDto response;
+        do {
+            response = reservationService.getUserReservationsPageList(request);
+            assertThat(response.getTotalReservations()).isNull();
+            listed.addAll(response.getReservations());
+            request.setContinuationToken(response.getContinuationToken());
+        } while (response.getContinuationToken() != null);
+
+        assertThat(listed).hasSize(30);
+        assertThat(listed).extracting(ReservationDto::getReservationId).doesNotHaveDuplicates();
+        assertThat(listed).extracting(ReservationDto::getStartDate).isSorted();
+    }
+
+    @Test
+    @DisplayName("Test keyset listing - Total is only counted on request")
+    public void whenTotalIsRequested_thenSliceHasTotal() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 4);
+        request.setGuestEmail(GUEST);
+        request.setContinuationToken("");
+        request.setIncludeTotal(true);
+
+        ReservationPageResponseDto response = reservationService.getUserReservationsPageList(request);
+
+        assertThat(response.getTotalReservations()).isEqualTo(30L);
+        assertThat(response.getReservations()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Test keyset listing - Invalid continuation token")
+    public void whenContinuationTokenIsInvalid_thenInvalidReservationExceptionIsThrown() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 4);
+        request.setGuestEmail(GUEST);
+        request.setContinuationToken("not a token");
+
+        assertThrows(InvalidReservationException.class, () -> reservationService.getUserReservationsPageList(request));
+    }
+
+    @Test
+    @DisplayName("Test listing - Every filter combination is rendered once and then reused")
+    public void whenListingWithEveryFilterCombination_thenQueriesAreTranslatedOnce() {
+        listWithEveryFilterCombination();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        listWithEveryFilterCombination();
+
+        assertThat(statistics.getQueryPlanCacheMissCount()).isZero();
+    }
+
+    private void listWithEveryFilterCombination() {
+        for (int combination = 0; combination < 8; combination++) {
+            ReservationPageRequestDto request = new ReservationPageRequestDto(0, 50);
+            request.setGuestEmail(GUEST);
+            request.setRoomId((combination & 1) != 0 ? roomIds.get(0) : null);
+            request.setStartDate((combination & 2) != 0 ? LocalDate.now().plusDays(2) : null);
+            request.setEndDate((combination & 4) != 0 ? LocalDate.now().plusDays(5) : null);
+            int rooms = request.getRoomId() != null ? 1 : 3;
+            int firstDay = request.getStartDate() != null ? 2 : 0;
+            int lastDay = request.getEndDate() != null ? 5 : 9;
+
+            ReservationPageResponseDto response = reservationService.getUserReservationsPageList(request);
+
+            assertThat(response.getTotalReservations()).isEqualTo((long) rooms * (lastDay - firstDay + 1));
+            assertThat(response.getReservations()).extracting(ReservationDto::getStartDate).isSorted();
+        }
+    }
+
+    @Test
+    @DisplayName("Test listing - Guests are looked up by their email hash and exact email")
+    public void givenReservationsWithoutGuestHash_whenBackfilled_thenTheGuestListsThem() {
+        ReservationPageRequestDto request = new ReservationPageRequestDto(0, 50);
+        request.setGuestEmail(GUEST);
+        transactionTemplate.execute(status -> {
+            entityManager.createNativeQuery("DELETE FROM job_lock").executeUpdate();
+            return entityManager.createNativeQuery("UPDATE reservation SET guest_hash = NULL").executeUpdate();
+        });
+
+        // The unhashed reservations are still listed while the backfill has not run
+        assertThat(reservationService.getUserReservationsPageList(request).getTotalReservations()).isEqualTo(30L);
+
+        assertThat(guestHashBackfill.backfillGuestHashes()).isTrue();
+
+        assertThat(countUnhashed()).isZero();
+        assertThat(reservationService.getUserReservationsPageList(request).getTotalReservations()).isEqualTo(30L);
+        request.setGuestEmail(GUEST.toUpperCase());
+        assertThat(reservationService.getUserReservationsPageList(request).getTotalReservations()).isZero();
+    }
+
+    private long countUnhashed() {
+        return transactionTemplate.execute(status -> ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM reservation WHERE guest_hash IS NULL")
+            .getSingleResult()).longValue());
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.alten.booking.service;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,7 +18,15 @@ import com.alten.booking.dto.ReservationDto;
 import com.alten.booking.exceptions.InvalidReservationException;
 import com.alten.booking.exceptions.MaxReserveAdvanceDaysException;
 import com.alten.booking.exceptions.MaxReserveDaysException;
+import com.alten.booking.datasource.ReadYourWrites;
+import com.alten.booking.idempotency.IdempotencyStore;
+import com.alten.booking.inventory.RoomTypeInventory;
+import com.alten.booking.locking.RoomLocks;
+import com.alten.booking.outbox.ReservationOutbox;
+import com.alten.booking.metrics.BookingMetrics;
+import com.alten.booking.occupancy.RoomOccupancyIndex;
 import com.alten.booking.repository.ReservationRepository;
+import com.alten.booking.sharding.ShardRouter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,6 +38,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @SpringBootTest
 public class ReservationServiceTests {
@@ -42,6 +52,33 @@ public class ReservationServiceTests {
     @Mock
     private RoomService roomService;
 
+    @Mock
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Mock
+    private RoomLocks roomLocks;
+
+    @Mock
+    private RoomNightService roomNightService;
+
+    @Mock
+    private BookingMetrics bookingMetrics;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @Mock
+    private ReservationOutbox outbox;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private RoomTypeInventory roomTypeInventory;
+
     private static Hotel mockHotel;
     private static Room mockRoom;
     private static RoomDetails mockRoomDetails;
@@ -59,7 +96,7 @@ public class ReservationServiceTests {
         mockRoom.setRoomDetails(mockRoomDetails);
         mockHotel.getRooms().add(mockRoom);
         //Mock an existing reservation
-        existingReservation = new Reservation(1L,"guestEmail@gmail.com", LocalDate.now(), LocalDate.now(), LocalDate.now().plusDays(3), StatusEnum.RESERVED.toString(), mockRoom);
+        existingReservation = new Reservation(1L,"guestEmail@gmail.com", LocalDate.now(), LocalDate.now(), LocalDate.now().plusDays(3), StatusEnum.RESERVED.toString(), mockRoom, null, 0L);
         //Mock a new reservation dto
         newReservationDto = new ReservationCreateDto("guestEmail@gmail.com", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE), 
         LocalDate.now().plusDays(3).format(DateTimeFormatter.ISO_LOCAL_DATE), mockRoom.getId());
@@ -68,11 +105,20 @@ public class ReservationServiceTests {
         LocalDate.now().plusDays(5).format(DateTimeFormatter.ISO_LOCAL_DATE), mockRoom.getId());
     }
 
+    @BeforeEach
+    public void setUpLocks(){
+        //Run the locked work straight away, without a transaction
+        given(roomLocks.inTransaction(any(), any())).willAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        //Run everything on the single shard
+        given(shardRouter.onRoom(any(), any())).willAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        given(shardRouter.onReservation(any(), any())).willAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    }
+
     @Test
     @DisplayName("Test reservation validation - Success")
 	public void whenValidData_thenReservationShouldValidatedAndCreated() {
         given(roomService.findById(1L)).willReturn(mockRoom);
-        given(reservationService.createReservation(newReservationDto)).willReturn(existingReservation);
+        given(reservationRepository.save(any(Reservation.class))).willReturn(existingReservation);
 
         ReservationDto createdReservation = reservationService.validateAndCreateReservation(newReservationDto);
 
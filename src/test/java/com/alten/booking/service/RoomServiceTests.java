@@ -0,0 +1,63 @@
+package com.alten.booking.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.alten.booking.fixtures.HotelFixtures;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest
+public class RoomServiceTests {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    private Long roomId;
+
+    @BeforeEach
+    public void setUp(){
+        roomId = hotelFixtures.createRoom();
+        roomService.evictAll();
+    }
+
+    @Test
+    @DisplayName("Test finding room - Second lookup is served by the cache")
+    public void whenRoomIsFoundTwice_thenSecondLookupIsACacheHit() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        roomService.findById(roomId);
+        roomService.findById(roomId);
+
+        assertThat(statistics.getDomainDataRegionStatistics("room").getMissCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("room").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test evicting room - Next lookup reads the database")
+    public void whenRoomIsEvicted_thenNextLookupIsACacheMiss() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        roomService.findById(roomId);
+        statistics.clear();
+
+        roomService.evict(roomId);
+        roomService.findById(roomId);
+
+        assertThat(statistics.getDomainDataRegionStatistics("room").getMissCount()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.alten.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.fixtures.HotelFixtures;
+import com.alten.booking.fixtures.HotelFixtures.CreatedHotel;
+import com.alten.booking.domain.Hotel;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.RoomDetails;
+import com.alten.booking.domain.RoomTypeNightId;
+import com.alten.booking.dto.ReservationBatchResultDto;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDeleteDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.RoomTypeReservationCreateDto;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.inventory.RoomTypeInventory;
+import com.alten.booking.repository.RoomTypeNightRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest
+public class RoomTypeInventoryTests {
+
+    private static final int ROOMS = 2;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomTypeInventory roomTypeInventory;
+
+    @Autowired
+    private RoomTypeNightRepository roomTypeNightRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HotelFixtures hotelFixtures;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long hotelId;
+    private Long roomDetailsId;
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        CreatedHotel hotel = hotelFixtures.createHotel(ROOMS);
+        hotelId = hotel.getHotelId();
+        roomDetailsId = hotel.getRoomDetailsId();
+        roomIds = hotel.getRoomIds();
+    }
+
+    @Test
+    @DisplayName("Test room type - Every room of the type is booked once, then the type is sold out")
+    public void givenOpenedRoomType_whenBookedMoreThanItsRooms_thenInvalidReservationExceptionIsThrown() {
+        roomTypeInventory.open(hotelId, roomDetailsId);
+
+        ReservationDto first = reservationService.validateAndCreateRoomTypeReservation(newReservation("first@gmail.com"));
+        ReservationDto second = reservationService.validateAndCreateRoomTypeReservation(newReservation("second@gmail.com"));
+
+        assertThat(first.getRoomId()).isNotEqualTo(second.getRoomId());
+        assertThat(roomIds).contains(first.getRoomId(), second.getRoomId());
+        assertThat(remaining(1)).isZero();
+        assertThat(remaining(2)).isZero();
+        assertThrows(InvalidReservationException.class, () -> reservationService.validateAndCreateRoomTypeReservation(newReservation("third@gmail.com")));
+        assertThat(remaining(1)).isZero();
+    }
+
+    @Test
+    @DisplayName("Test room type - Bookings and cancels of a single room keep the type counters in step")
+    public void givenOpenedRoomType_whenARoomIsBookedAndCanceled_thenTheCountersFollow() {
+        roomTypeInventory.open(hotelId, roomDetailsId);
+        ReservationDto booked = reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", date(1), date(3), roomIds.get(0)));
+
+        assertThat(remaining(1)).isEqualTo(ROOMS - 1);
+        assertThat(remaining(3)).isEqualTo(ROOMS);
+        ReservationDto typed = reservationService.validateAndCreateRoomTypeReservation(newReservation("other@gmail.com"));
+        assertThat(typed.getRoomId()).isEqualTo(roomIds.get(1));
+
+        reservationService.cancelReservation(booked.getReservationId(), new ReservationDeleteDto("guest@gmail.com"));
+
+        assertThat(remaining(1)).isEqualTo(1);
+        assertThat(reservationService.validateAndCreateRoomTypeReservation(newReservation("third@gmail.com")).getRoomId()).isEqualTo(roomIds.get(0));
+    }
+
+    @Test
+    @DisplayName("Test room type - Batches take the type nights of their rooms")
+    public void givenOpenedRoomType_whenEveryRoomIsBookedInABatch_thenTheTypeIsSoldOut() {
+        roomTypeInventory.open(hotelId, roomDetailsId);
+
+        List<ReservationBatchResultDto> results = reservationService.validateAndCreateReservations(Arrays.asList(
+            new ReservationCreateDto("first@gmail.com", date(1), date(3), roomIds.get(0)),
+            new ReservationCreateDto("second@gmail.com", date(2), date(4), roomIds.get(1))));
+
+        assertThat(results).allMatch(result -> result.getReservation() != null);
+        assertThat(remaining(1)).isEqualTo(1);
+        assertThat(remaining(2)).isZero();
+        assertThat(remaining(3)).isEqualTo(1);
+        assertThrows(InvalidReservationException.class, () -> reservationService.validateAndCreateRoomTypeReservation(newReservation("third@gmail.com")));
+    }
+
+    @Test
+    @DisplayName("Test room type - Opening counts the nights already taken")
+    public void givenBookedRoom_whenTheTypeIsOpened_thenItsNightsAreCounted() {
+        reservationService.validateAndCreateReservation(new ReservationCreateDto("guest@gmail.com", date(1), date(3), roomIds.get(0)));
+
+        roomTypeInventory.open(hotelId, roomDetailsId);
+
+        assertThat(remaining(0)).isEqualTo(ROOMS);
+        assertThat(remaining(1)).isEqualTo(ROOMS - 1);
+        assertThat(roomTypeNightRepository.findNights(hotelId, roomDetailsId, LocalDate.now(), LocalDate.now().plusDays(60))).hasSize(31);
+    }
+
+    @Test
+    @DisplayName("Test room type - A room added to an opened type is counted by the next opening")
+    public void givenSoldOutRoomType_whenARoomIsAddedAndTheTypeOpenedAgain_thenItCanBeBooked() {
+        roomTypeInventory.open(hotelId, roomDetailsId);
+        reservationService.validateAndCreateRoomTypeReservation(newReservation("first@gmail.com"));
+        reservationService.validateAndCreateRoomTypeReservation(newReservation("second@gmail.com"));
+        Long addedRoomId = transactionTemplate.execute(status -> {
+            Room room = new Room(null, entityManager.find(Hotel.class, hotelId), entityManager.find(RoomDetails.class, roomDetailsId));
+            entityManager.persist(room);
+            return room.getId();
+        });
+        assertThat(remaining(1)).isZero();
+
+        assertThat(roomTypeInventory.open(hotelId, roomDetailsId)).isPositive();
+
+        assertThat(remaining(0)).isEqualTo(ROOMS + 1);
+        assertThat(remaining(1)).isEqualTo(1);
+        assertThat(reservationService.validateAndCreateRoomTypeReservation(newReservation("third@gmail.com")).getRoomId()).isEqualTo(addedRoomId);
+        assertThat(roomTypeInventory.open(hotelId, roomDetailsId)).isZero();
+    }
+
+    @Test
+    @DisplayName("Test room type - Concurrent bookings of a type never take more rooms than it has")
+    public void whenManyGuestsBookTheSameRoomType_thenOnlyItsRoomsAreBooked() throws Exception {
+        roomTypeInventory.open(hotelId, roomDetailsId);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                RoomTypeReservationCreateDto dto = newReservation("guest" + i + "@gmail.com");
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return reservationService.validateAndCreateRoomTypeReservation(dto).getRoomId();
+                    } catch (InvalidReservationException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Long> booked = new ArrayList<>();
+            for (Future<Long> result : results) {
+                if(result.get() != null){
+                    booked.add(result.get());
+                }
+            }
+            assertThat(booked).containsExactlyInAnyOrderElementsOf(roomIds);
+            assertThat(remaining(1)).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RoomTypeReservationCreateDto newReservation(String guestEmail) {
+        return new RoomTypeReservationCreateDto(guestEmail, date(1), date(3), hotelId, roomDetailsId);
+    }
+
+    private String date(int days) {
+        return LocalDate.now().plusDays(days).format(DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    private int remaining(int days) {
+        return roomTypeNightRepository.findById(new RoomTypeNightId(hotelId, roomDetailsId, LocalDate.now().plusDays(days))).get().getRemaining();
+    }
+
+}
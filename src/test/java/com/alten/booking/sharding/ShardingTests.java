@@ -0,0 +1,220 @@
+package com.alten.booking.sharding;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alten.booking.domain.Reservation;
+import com.alten.booking.domain.Room;
+import com.alten.booking.domain.StatusEnum;
+import com.alten.booking.dto.ReservationCreateDto;
+import com.alten.booking.dto.ReservationDto;
+import com.alten.booking.dto.ReservationPageRequestDto;
+import com.alten.booking.dto.ReservationPageResponseDto;
+import com.alten.booking.exceptions.InvalidReservationException;
+import com.alten.booking.metrics.StatementCounter;
+import com.alten.booking.service.ReservationService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+@SpringBootTest(properties = {
+    "booking.sharding.enabled=true",
+    "booking.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "booking.sharding.shards[0].username=sa",
+    "booking.sharding.shards[1].url=jdbc:h2:mem:shard1;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "booking.sharding.shards[1].username=sa",
+    "booking.sharding.shards[2].url=jdbc:h2:mem:shard2;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "booking.sharding.shards[2].username=sa"
+})
+public class ShardingTests {
+
+    private static final String GUEST = "guest@gmail.com";
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** One room per shard, the room of shard i being roomIds.get(i) */
+    private List<Long> roomIds;
+
+    @BeforeEach
+    public void setUp(){
+        roomIds = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long hotelId = firstHotelOn(shard);
+            long roomId = hotelId * 10;
+            roomIds.add(roomId);
+            onShard(shard, () -> {
+                entityManager.createNativeQuery("DELETE FROM room_night").executeUpdate();
+                entityManager.createNativeQuery("DELETE FROM reservation_event").executeUpdate();
+                entityManager.createNativeQuery("DELETE FROM reservation").executeUpdate();
+                entityManager.createNativeQuery("DELETE FROM room_version").executeUpdate();
+                entityManager.createNativeQuery("DELETE FROM room").executeUpdate();
+                entityManager.createNativeQuery("DELETE FROM room_details").executeUpdate();
+                entityManager.createNativeQuery("DELETE FROM hotel").executeUpdate();
+                //Hotels, details and rooms get globally unique ids
+                entityManager.createNativeQuery("INSERT INTO hotel (id, name) VALUES (" + hotelId + ", 'Hotel " + hotelId + "')").executeUpdate();
+                entityManager.createNativeQuery("INSERT INTO room_details (id, max_reserve_days, max_reserve_advance_days) VALUES (" + hotelId + ", 3, 30)").executeUpdate();
+                entityManager.createNativeQuery("INSERT INTO room (id, hotel_id, room_details_id) VALUES (" + roomId + ", " + hotelId + ", " + hotelId + ")").executeUpdate();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Test sharding - A reservation lives on the shard of its hotel")
+    public void givenRoomsOnEveryShard_whenReservationIsCreated_thenItIsOnlyStoredOnTheRoomShard() {
+        for (int shard = 0; shard < roomIds.size(); shard++) {
+            ReservationDto created = reservationService.validateAndCreateReservation(newReservation(roomIds.get(shard), 1));
+
+            assertThat(ShardIds.shardOf(created.getReservationId())).isEqualTo(shard);
+            for (int other = 0; other < roomIds.size(); other++) {
+                assertThat(countReservations(other, created.getReservationId())).isEqualTo(other == shard ? 1L : 0L);
+            }
+            assertThat(reservationService.findDtoById(created.getReservationId()).getRoomId()).isEqualTo(roomIds.get(shard));
+        }
+    }
+
+    @Test
+    @DisplayName("Test sharding - The reservations of a guest are gathered from every shard")
+    public void givenReservationsOnEveryShard_whenGuestListsThem_thenPagesAndSlicesMergeTheShards() {
+        List<Long> expected = new ArrayList<>();
+        for (int day = 0; day < 2; day++) {
+            for (Long roomId : roomIds) {
+                expected.add(reservationService.validateAndCreateReservation(newReservation(roomId, day * 2 + 1)).getReservationId());
+            }
+        }
+
+        ReservationPageRequestDto firstPage = new ReservationPageRequestDto(0, 4);
+        firstPage.setGuestEmail(GUEST);
+        ReservationPageRequestDto secondPage = new ReservationPageRequestDto(1, 4);
+        secondPage.setGuestEmail(GUEST);
+        ReservationPageResponseDto first = reservationService.getUserReservationsPageList(firstPage);
+        ReservationPageResponseDto second = reservationService.getUserReservationsPageList(secondPage);
+
+        assertThat(first.getTotalReservations()).isEqualTo(6L);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+        assertThat(idsOf(first)).hasSize(4);
+        assertThat(idsOf(second)).hasSize(2);
+        List<Long> paged = new ArrayList<>(idsOf(first));
+        paged.addAll(idsOf(second));
+        assertThat(paged).containsExactlyInAnyOrderElementsOf(expected);
+
+        List<Long> sliced = new ArrayList<>();
+        String token = "";
+        do {
+            ReservationPageRequestDto slice = new ReservationPageRequestDto(0, 4);
+            slice.setGuestEmail(GUEST);
+            slice.setContinuationToken(token);
+            ReservationPageResponseDto response = reservationService.getUserReservationsPageList(slice);
+            sliced.addAll(idsOf(response));
+            token = response.getContinuationToken();
+        } while(token != null);
+
+        assertThat(sliced).isEqualTo(paged);
+    }
+
+    @Test
+    @DisplayName("Test sharding - An overlapping booking is refused on its shard")
+    public void givenReservedRoom_whenSameNightsAreBooked_thenInvalidReservationExceptionIsThrown() {
+        Long roomId = roomIds.get(roomIds.size() - 1);
+        reservationService.validateAndCreateReservation(newReservation(roomId, 1));
+
+        assertThrows(InvalidReservationException.class, () -> reservationService.validateAndCreateReservation(newReservation(roomId, 1)));
+    }
+
+    @Test
+    @DisplayName("Test sharding - An unknown room is only looked up on every shard once")
+    public void givenUnknownRoom_whenItsShardIsAskedTwice_thenShardsAreOnlyProbedOnce() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(shardRouter.shardOfRoom(Long.MAX_VALUE)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+        long probes = statistics.getPrepareStatementCount();
+        assertThat(shardRouter.shardOfRoom(Long.MAX_VALUE)).isEqualTo(ShardRouter.DEFAULT_SHARD);
+
+        assertThat(probes).isEqualTo(shardRouter.getShardCount());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(probes);
+    }
+
+    @Test
+    @DisplayName("Test sharding - The statements run on every shard are counted for the calling thread")
+    public void givenBoundCounter_whenRunOnEachShard_thenStatementsOfEveryShardAreCounted() {
+        AtomicInteger count = new AtomicInteger();
+        StatementCounter.bind(count);
+        try {
+            shardRouter.onEachShard(() -> transactionTemplate.execute(status -> entityManager.createNativeQuery("SELECT COUNT(*) FROM room").getSingleResult()));
+        } finally {
+            StatementCounter.bind(null);
+        }
+
+        assertThat(count.get()).isEqualTo(shardRouter.getShardCount());
+    }
+
+    @Test
+    @DisplayName("Test sharding - A reservation id can't be generated outside of a shard")
+    public void givenNoShard_whenReservationIsPersisted_thenIllegalStateExceptionIsThrown() {
+        Reservation reservation = new Reservation(null, GUEST, LocalDate.now(), LocalDate.now().plusDays(1), LocalDate.now().plusDays(2),
+            StatusEnum.RESERVED.toString(), entityManager.getReference(Room.class, roomIds.get(0)), null, 0L);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.execute(status -> {
+            entityManager.persist(reservation);
+            return null;
+        }));
+    }
+
+    private long firstHotelOn(int shard) {
+        long hotelId = 1;
+        while(shardRouter.shardOfHotel(hotelId) != shard){
+            hotelId++;
+        }
+        return hotelId;
+    }
+
+    private <T> T onShard(int shard, Supplier<T> work) {
+        return shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    private long countReservations(int shard, Long reservationId) {
+        return onShard(shard, () -> ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM reservation WHERE id = " + reservationId).getSingleResult()).longValue());
+    }
+
+    private ReservationCreateDto newReservation(Long roomId, int startInDays) {
+        return new ReservationCreateDto(GUEST, LocalDate.now().plusDays(startInDays).format(DateTimeFormatter.ISO_LOCAL_DATE),
+            LocalDate.now().plusDays(startInDays + 1).format(DateTimeFormatter.ISO_LOCAL_DATE), roomId);
+    }
+
+    private List<Long> idsOf(ReservationPageResponseDto response) {
+        return response.getReservations().stream().map(ReservationDto::getReservationId).collect(Collectors.toList());
+    }
+
+}